@@ -186,4 +186,28 @@ export const cartAPI = {
       throw error;
     }
   },
+
+  /**
+   * Apply several cart changes in one request
+   * @param {Array<Object>} operations - [{ type: "add" | "update" | "remove", gameId, quantity }]
+   * @returns {Promise<Object>} - { items, count, total }
+   */
+  batchUpdateCart: async (operations) => {
+    try {
+      const response = await authenticatedFetch(`${API_BASE_URL}/batch`, {
+        method: "POST",
+        body: JSON.stringify({ operations }),
+      });
+
+      if (!response.ok) {
+        const errorData = await response.json().catch(() => ({}));
+        throw new Error(errorData.message || "Failed to update cart");
+      }
+
+      return await response.json();
+    } catch (error) {
+      console.error("Error applying cart batch:", error);
+      throw error;
+    }
+  },
 };
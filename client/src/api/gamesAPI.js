@@ -15,6 +15,35 @@ export const gamesAPI = {
     return await response.json();
   },
 
+  /**
+   * Fetch all games marked for the logged-in user (requires authentication)
+   * @returns {Promise<Array>} Games with inCart, cartQuantity and inWishlist
+   */
+  getAnnotatedGames: async () => {
+    const response = await authenticatedFetch(
+      getApiUrl(`${API_CONFIG.endpoints.games}?annotate=user`),
+      {
+        method: "GET",
+      }
+    );
+    return await response.json();
+  },
+
+  /**
+   * Fetch the precomputed home page shelves
+   * @returns {Promise<Object>} { featuredGames, saleGames, freeGames, popularGames }
+   */
+  getStorefront: async () => {
+    const response = await fetch(
+      getApiUrl(`${API_CONFIG.endpoints.games}/storefront`),
+      {
+        method: "GET",
+        headers: { "Content-Type": "application/json" },
+      }
+    );
+    return await response.json();
+  },
+
   /**
    * Add a game to wishlist (requires authentication)
    * @param {number} gameId
@@ -169,6 +169,24 @@ export const CartProvider = ({ children }) => {
     [cartItems, fetchCart]
   );
 
+  // Several changes in one request; the response already holds the final cart
+  const batchUpdateCart = useCallback(async (operations) => {
+    try {
+      setLoading(true);
+      const response = await cartAPI.batchUpdateCart(operations);
+
+      setCartItems(Array.isArray(response.items) ? response.items : []);
+      setCartCount(response.count || 0);
+
+      return { success: true, message: "Cart updated successfully!" };
+    } catch (error) {
+      console.error("Error updating cart:", error);
+      return { success: false, message: error.message };
+    } finally {
+      setLoading(false);
+    }
+  }, []);
+
   const clearCart = () => {
     setCartItems([]);
     setCartCount(0);
@@ -181,6 +199,7 @@ export const CartProvider = ({ children }) => {
     addToCart,
     updateCartItem,
     removeFromCart,
+    batchUpdateCart,
     fetchCart,
     fetchCartCount,
     clearCart,
@@ -35,6 +35,41 @@ export const useGames = () => {
   };
 };
 
+const EMPTY_SHELVES = {
+  featuredGames: [],
+  saleGames: [],
+  freeGames: [],
+  popularGames: [],
+};
+
+/**
+ * Custom hook for fetching the server-computed home page shelves
+ * @returns {Object} { featuredGames, saleGames, freeGames, popularGames, loading, error }
+ */
+export const useStorefront = () => {
+  const [shelves, setShelves] = useState(EMPTY_SHELVES);
+  const [loading, setLoading] = useState(true);
+  const [error, setError] = useState(null);
+
+  useEffect(() => {
+    const fetchStorefront = async () => {
+      try {
+        setLoading(true);
+        setError(null);
+        const data = await gamesAPI.getStorefront();
+        setShelves({ ...EMPTY_SHELVES, ...data });
+      } catch (err) {
+        setError(err.message);
+      } finally {
+        setLoading(false);
+      }
+    };
+    fetchStorefront();
+  }, []);
+
+  return { ...shelves, loading, error };
+};
+
 /**
  * Custom hook for categorizing games
  * @param {Array} games - Array of game objects
@@ -1,12 +1,11 @@
 import React from "react";
 import HeroSection from "../components/HeroSection";
 import GameSection from "../components/GameSection";
-import { useGames, useGameCategories } from "../hooks/useGames";
+import { useStorefront } from "../hooks/useGames";
 
 const HomePage = () => {
-  const { games, loading, error } = useGames();
-  const { featuredGames, saleGames, freeGames, popularGames } =
-    useGameCategories(games);
+  const { featuredGames, saleGames, freeGames, popularGames, loading, error } =
+    useStorefront();
 
   return (
     <>
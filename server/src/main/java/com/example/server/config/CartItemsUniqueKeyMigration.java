@@ -0,0 +1,142 @@
+package com.example.server.config;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Adds the (user_id, game_id) unique key to an existing cart_items table.
+ *
+ * ddl-auto cannot create the key while the table still holds duplicate
+ * lines from before CartItemRepository.upsertIncrement, and without the key
+ * the upsert keeps inserting new duplicates. So before Hibernate starts,
+ * duplicates are merged into the oldest line of each (user, game) with the
+ * quantities summed, and the key is added. Runs once: a table that already
+ * has such a key (or does not exist yet) is left to Hibernate.
+ */
+@Component
+public class CartItemsUniqueKeyMigration implements InitializingBean {
+
+    private static final String TABLE = "cart_items";
+    private static final String KEY = "uk_cart_items_user_game";
+    private static final Set<String> KEY_COLUMNS = Set.of("user_id", "game_id");
+
+    // Another instance may still insert duplicates between the merge and the ALTER
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String FIND_DUPLICATES_SQL = "SELECT user_id, game_id, MIN(id), SUM(quantity), COUNT(*) "
+            + "FROM cart_items WHERE user_id IS NOT NULL GROUP BY user_id, game_id HAVING COUNT(*) > 1";
+    private static final String KEEP_SQL = "UPDATE cart_items SET quantity = ? WHERE id = ?";
+    private static final String DROP_OTHERS_SQL = "DELETE FROM cart_items WHERE user_id = ? AND game_id = ? AND id <> ?";
+    private static final String ADD_KEY_SQL = "ALTER TABLE cart_items ADD CONSTRAINT " + KEY + " UNIQUE (user_id, game_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public CartItemsUniqueKeyMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // The JPA transaction manager is not available before the EntityManagerFactory
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!needsKey()) {
+            return;
+        }
+        for (int attempt = 1;; attempt++) {
+            Integer merged = transactionTemplate.execute(status -> mergeDuplicates());
+            try {
+                jdbcTemplate.execute(ADD_KEY_SQL);
+                System.out.println("Added " + KEY + " to " + TABLE + " after merging " + merged
+                        + " duplicate cart lines");
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * True if cart_items exists but has no unique key on exactly (user_id, game_id)
+     */
+    private boolean needsKey() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase() : TABLE;
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), table,
+                    new String[] { "TABLE" })) {
+                if (!tables.next()) {
+                    return false;
+                }
+            }
+            try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table,
+                    true, false)) {
+                Map<String, Set<String>> columns = new HashMap<>();
+                while (indexes.next()) {
+                    String column = indexes.getString("COLUMN_NAME");
+                    if (column != null) {
+                        columns.computeIfAbsent(indexes.getString("INDEX_NAME"), name -> new HashSet<>())
+                                .add(column.toLowerCase());
+                    }
+                }
+                return !columns.containsValue(KEY_COLUMNS);
+            }
+        }));
+    }
+
+    /**
+     * Fold every duplicate group into its lowest id, which keeps the line's
+     * place in the cart
+     *
+     * @return number of lines deleted
+     */
+    private int mergeDuplicates() {
+        List<Object[]> keep = new ArrayList<>();
+        List<Object[]> drop = new ArrayList<>();
+        int[] merged = new int[1];
+        jdbcTemplate.query(FIND_DUPLICATES_SQL, rs -> {
+            long userId = rs.getLong(1);
+            long gameId = rs.getLong(2);
+            long keepId = rs.getLong(3);
+            keep.add(new Object[] { rs.getLong(4), keepId });
+            drop.add(new Object[] { userId, gameId, keepId });
+            merged[0] += rs.getInt(5) - 1;
+        });
+        if (keep.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(KEEP_SQL, keep);
+        jdbcTemplate.batchUpdate(DROP_OTHERS_SQL, drop);
+        return merged[0];
+    }
+
+    /**
+     * Makes the EntityManagerFactory (and so ddl-auto) wait for the migration
+     */
+    @Component
+    static class JpaDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        JpaDependsOnMigration() {
+            super(CartItemsUniqueKeyMigration.class);
+        }
+    }
+}
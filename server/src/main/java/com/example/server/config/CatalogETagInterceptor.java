@@ -0,0 +1,58 @@
+package com.example.server.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.example.server.service.CatalogAnnotator;
+import com.example.server.service.GameService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Conditional GET support for the catalog endpoints.
+ *
+ * Every catalog response is fully determined by the URL, the negotiated
+ * format and the catalog version, so the ETag/Last-Modified check runs before the controller: a
+ * matching If-None-Match (or If-Modified-Since) is answered with 304 without
+ * reaching the service, the repository or the JSON serializer.
+ */
+@Component
+public class CatalogETagInterceptor implements HandlerInterceptor {
+
+    private final GameService gameService;
+
+    public CatalogETagInterceptor(GameService gameService) {
+        this.gameService = gameService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+        // The same URL is served as JSON or a binary format depending on Accept
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // Annotated responses also depend on the user's cart and wishlist
+        if (CatalogAnnotator.isRequested(request)) {
+            return true;
+        }
+
+        // Read the version before the handler runs. Writes publish the new
+        // snapshot before bumping the version, so if one lands in between the
+        // body is newer than the ETag and the next request simply misses
+        String etag = CatalogRepresentation.of(request).eTag(gameService.getCatalogETag());
+        long lastModified = gameService.getCatalogLastModified();
+
+        // Clients may keep the body but must revalidate it on every use
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        // Sets ETag and Last-Modified, and the 304 status when the client is current
+        boolean notModified = new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+        return !notModified;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.server.config;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Wire format a catalog request negotiates, decided from its Accept header
+ * before the handler runs.
+ *
+ * Mirrors the message converter order (JSON first, then Smile, CBOR and
+ * protobuf): the highest-quality Accept entry wins, and a wildcard entry
+ * picks JSON. The ETag interceptor and the response cache use it so each
+ * format gets its own strong ETag.
+ */
+public enum CatalogRepresentation {
+
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile")),
+    CBOR(MediaType.parseMediaType("application/cbor")),
+    PROTOBUF(ProtobufJacksonHttpMessageConverter.APPLICATION_PROTOBUF);
+
+    private final MediaType mediaType;
+
+    CatalogRepresentation(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public static CatalogRepresentation of(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        // Stable sort: entries of equal quality keep the client's order
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                break;
+            }
+            for (CatalogRepresentation representation : values()) {
+                if (type.isCompatibleWith(representation.mediaType)) {
+                    return representation;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Strong ETag for this format, derived from the ETag of the JSON body
+     */
+    public String eTag(String jsonETag) {
+        if (this == JSON) {
+            return jsonETag;
+        }
+        return jsonETag.substring(0, jsonETag.length() - 1) + "-" + name().toLowerCase() + "\"";
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.server.util.AuthenticatedUser;
 import com.example.server.util.JwtUtil;
 
 import java.io.IOException;
@@ -28,37 +29,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        // Check if Authorization header exists and starts with "Bearer ",
+        // and no authentication is set in the context yet
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7); // Remove "Bearer " prefix
 
-        // Check if Authorization header exists and starts with "Bearer "
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7); // Remove "Bearer " prefix
-            try {
-                username = jwtUtil.extractUsername(jwt);
-                System.out.println("JWT Filter - Token found for user: " + username);
-            } catch (Exception e) {
-                System.out.println("JWT Filter - Invalid token: " + e.getMessage());
-            }
-        }
-
-        // If we have a username and no authentication is set in the context
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Validate the token
-            if (jwtUtil.validateToken(jwt, username)) {
-                System.out.println("JWT Filter - Token validated successfully for: " + username);
-
-                // Create authentication token
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(username, null,
+            // Verify the token once; the principal carries everything controllers need
+            AuthenticatedUser user = jwtUtil.authenticate(jwt);
+            if (user != null && user.username() != null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(user, null,
                         new ArrayList<>());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 // Set authentication in the security context
                 SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                System.out.println("JWT Filter - Authentication set for user: " + username);
+                System.out.println("JWT Filter - Authentication set for user: " + user.username());
             } else {
-                System.out.println("JWT Filter - Token validation failed for: " + username);
+                System.out.println("JWT Filter - Invalid or expired token");
             }
         }
 
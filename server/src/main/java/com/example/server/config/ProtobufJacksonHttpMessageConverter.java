@@ -0,0 +1,178 @@
+package com.example.server.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.server.dto.GamePageDto;
+import com.example.server.model.CartItem;
+import com.example.server.model.Game;
+import com.example.server.model.WishlistItem;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufField;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+
+/**
+ * Writes Game, CartItem and WishlistItem payloads as protobuf using the
+ * schema in proto/gamevault.proto.
+ *
+ * Every response is wrapped in the schema's Response message: lists go into
+ * games / cartItems / wishlistItems by element type, and the map-shaped
+ * controller responses map key-for-key onto the envelope fields. A body the
+ * envelope cannot describe exactly (an unknown key, or a list or message
+ * field holding some other type) is written as JSON instead of half-empty
+ * protobuf: the handler has already run by then (a cart add may be
+ * committed), so failing the response would misreport the request.
+ * Write-only: request bodies stay JSON.
+ */
+public class ProtobufJacksonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    private static final String SCHEMA_LOCATION = "proto/gamevault.proto";
+    private static final String ROOT_MESSAGE = "Response";
+
+    private final ProtobufSchema schema;
+    private final ObjectWriter writer;
+    private final ObjectWriter jsonWriter;
+
+    public ProtobufJacksonHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        super(APPLICATION_PROTOBUF);
+        // Built before the factory is switched, with the application's JSON settings
+        this.jsonWriter = builder.build().writer();
+        ObjectMapper mapper = builder.factory(new ProtobufFactory()).build();
+        this.schema = loadSchema();
+        // Only nested entity properties missing from the schema are skipped;
+        // envelope keys and element types are checked in toEnvelope
+        this.writer = mapper.writer(schema).with(JsonGenerator.Feature.IGNORE_UNKNOWN);
+    }
+
+    private static ProtobufSchema loadSchema() {
+        try (InputStream in = new ClassPathResource(SCHEMA_LOCATION).getInputStream()) {
+            return ProtobufSchemaLoader.std.load(in, ROOT_MESSAGE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load protobuf schema " + SCHEMA_LOCATION, e);
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Map.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz)
+                || clazz == Game.class || clazz == CartItem.class || clazz == WishlistItem.class
+                || clazz == GamePageDto.class;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        // Map (and validate) before touching the body, so the fallback can still change the content type
+        Map<String, Object> envelope;
+        try {
+            envelope = toEnvelope(body);
+        } catch (Unmappable e) {
+            outputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            jsonWriter.writeValue(outputMessage.getBody(), body);
+            return;
+        }
+        writer.writeValue(outputMessage.getBody(), envelope);
+    }
+
+    // ==================== ENVELOPE MAPPING ====================
+
+    private Map<String, Object> toEnvelope(Object body) {
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        if (body instanceof GamePageDto page) {
+            put(envelope, "games", page.getItems(), true);
+            put(envelope, "nextCursor", page.getNextCursor(), false);
+            put(envelope, "hasMore", page.isHasMore(), false);
+        } else if (body instanceof Collection<?> items) {
+            put(envelope, listField(items), items, false);
+        } else if (body instanceof Map<?, ?> map) {
+            map.forEach((key, value) -> {
+                if ("items".equals(key) && value instanceof Collection<?> items) {
+                    put(envelope, listField(items), items, false);
+                } else {
+                    put(envelope, String.valueOf(key), value, false);
+                }
+            });
+        } else if (body instanceof Game game) {
+            put(envelope, "games", List.of(game), false);
+        } else if (body instanceof CartItem item) {
+            put(envelope, "cartItem", item, false);
+        } else if (body instanceof WishlistItem item) {
+            put(envelope, "wishlistItem", item, false);
+        }
+        return envelope;
+    }
+
+    /**
+     * Add one envelope field after checking that the schema has it and, for
+     * message fields, that the value (or every element) is that message's
+     * type. Maps are accepted as games only for sparse-fieldset pages.
+     */
+    private void put(Map<String, Object> envelope, String name, Object value, boolean sparseRows) {
+        ProtobufField field = schema.getRootType().field(name);
+        if (field == null) {
+            throw new Unmappable();
+        }
+        if (value != null && field.getMessageType() != null) {
+            String messageName = field.getMessageType().getName();
+            Collection<?> values = value instanceof Collection<?> collection ? collection : List.of(value);
+            for (Object element : values) {
+                boolean matches = element == null || element.getClass().getSimpleName().equals(messageName)
+                        || (sparseRows && element instanceof Map);
+                if (!matches) {
+                    throw new Unmappable();
+                }
+            }
+        }
+        envelope.put(name, value);
+    }
+
+    // Lists of anything else are caught by put() against the games field
+    private static String listField(Collection<?> items) {
+        Object first = items.isEmpty() ? null : items.iterator().next();
+        if (first instanceof CartItem) {
+            return "cartItems";
+        }
+        if (first instanceof WishlistItem) {
+            return "wishlistItems";
+        }
+        return "games";
+    }
+
+    /**
+     * Body outside the schema; caught in writeInternal (no stack trace needed)
+     */
+    private static final class Unmappable extends RuntimeException {
+        Unmappable() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.server.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private CatalogETagInterceptor catalogETagInterceptor;
+
+    // Prototype-scoped in Spring Boot, so this instance is ours to reconfigure
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Conditional GET (ETag / Last-Modified / 304) for every catalog read
+        registry.addInterceptor(catalogETagInterceptor).addPathPatterns("/api/games", "/api/games/**");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Appended last so JSON stays the default when the client accepts anything.
+        // Smile and CBOR converters are registered by Spring MVC from the classpath.
+        converters.add(new ProtobufJacksonHttpMessageConverter(objectMapperBuilder));
+    }
+}
@@ -2,16 +2,14 @@ package com.example.server.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import com.example.server.model.CartItem;
+import com.example.server.dto.CartBatchRequestDto;
+import com.example.server.dto.CartSummaryDto;
 import com.example.server.service.CartService;
-import com.example.server.util.JwtUtil;
+import com.example.server.util.AuthenticatedUser;
 
-import jakarta.servlet.http.HttpServletRequest;
-import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -22,21 +20,12 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
-    @Autowired
-    private JwtUtil jwtUtil;
-
     /**
-     * Get the authenticated user ID from JWT token
+     * Get the authenticated user ID from the principal set by the JWT filter
      */
-    private Long getAuthenticatedUserId(HttpServletRequest request) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated()) {
-            // Extract JWT token from Authorization header
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-                return jwtUtil.extractUserId(token);
-            }
+    private Long getAuthenticatedUserId(AuthenticatedUser user) {
+        if (user != null && user.userId() != null) {
+            return user.userId();
         }
         throw new RuntimeException("User not authenticated or token not found");
     }
@@ -47,19 +36,21 @@ public class CartController {
      */
     @PostMapping("/add")
     public ResponseEntity<Map<String, Object>> addToCart(@RequestBody Map<String, Long> request,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getAuthenticatedUserId(httpRequest);
+            Long userId = getAuthenticatedUserId(user);
             Long gameId = request.get("gameId");
 
-            CartItem item = cartService.addToCart(userId, gameId);
-            Integer newCount = cartService.getCartItemCount(userId);
+            CartSummaryDto cart = cartService.addToCart(userId, gameId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Game added to cart");
-            response.put("cartItemCount", newCount);
-            response.put("cartItem", item);
+            response.put("cartItemCount", cart.getCount());
+            response.put("cartItem", cart.findItem(gameId));
+            response.put("total", cart.getTotal());
+            response.put("totalCents", cart.getTotalCents());
+            response.put("version", cart.getVersion());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -75,8 +66,8 @@ public class CartController {
      * GET /api/cart/count
      */
     @GetMapping("/count")
-    public ResponseEntity<Map<String, Integer>> getCartCount(HttpServletRequest httpRequest) {
-        Long userId = getAuthenticatedUserId(httpRequest); // Get from JWT instead of path
+    public ResponseEntity<Map<String, Integer>> getCartCount(@AuthenticationPrincipal AuthenticatedUser user) {
+        Long userId = getAuthenticatedUserId(user); // Get from JWT instead of path
         Integer count = cartService.getCartItemCount(userId);
         Map<String, Integer> response = new HashMap<>();
         response.put("count", count);
@@ -88,16 +79,18 @@ public class CartController {
      * GET /api/cart
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getCart(HttpServletRequest httpRequest) {
-        Long userId = getAuthenticatedUserId(httpRequest); // Get from JWT instead of path
-        List<CartItem> items = cartService.getCartItems(userId);
-        Integer count = cartService.getCartItemCount(userId);
-        Double total = cartService.getCartTotal(userId);
+    public ResponseEntity<Map<String, Object>> getCart(@AuthenticationPrincipal AuthenticatedUser user) {
+        Long userId = getAuthenticatedUserId(user); // Get from JWT instead of path
+        CartSummaryDto cart = cartService.getCartSummary(userId);
 
         Map<String, Object> response = new HashMap<>();
-        response.put("items", items);
-        response.put("count", count);
-        response.put("total", total);
+        response.put("items", cart.getItems());
+        response.put("count", cart.getCount());
+        response.put("subtotalCents", cart.getSubtotalCents());
+        response.put("taxCents", cart.getTaxCents());
+        response.put("total", cart.getTotal());
+        response.put("totalCents", cart.getTotalCents());
+        response.put("version", cart.getVersion());
 
         return ResponseEntity.ok(response);
     }
@@ -108,20 +101,22 @@ public class CartController {
      */
     @PutMapping("/update")
     public ResponseEntity<Map<String, Object>> updateCartItem(@RequestBody Map<String, Object> request,
-            HttpServletRequest httpRequest) {
-        Long userId = getAuthenticatedUserId(httpRequest); // Get from JWT instead of request
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long userId = getAuthenticatedUserId(user); // Get from JWT instead of request
         Long gameId = Long.valueOf(request.get("gameId").toString());
         Integer quantity = Integer.valueOf(request.get("quantity").toString());
 
         System.out.println("Updating cart - User ID: " + userId + ", Game ID: " + gameId + ", Quantity: " + quantity);
 
-        CartItem item = cartService.updateQuantity(userId, gameId, quantity);
-        Integer newCount = cartService.getCartItemCount(userId);
+        CartSummaryDto cart = cartService.updateQuantity(userId, gameId, quantity);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
-        response.put("cartItem", item);
-        response.put("cartItemCount", newCount);
+        response.put("cartItem", cart.findItem(gameId));
+        response.put("cartItemCount", cart.getCount());
+        response.put("total", cart.getTotal());
+        response.put("totalCents", cart.getTotalCents());
+        response.put("version", cart.getVersion());
 
         return ResponseEntity.ok(response);
     }
@@ -132,19 +127,48 @@ public class CartController {
      */
     @DeleteMapping("/remove")
     public ResponseEntity<Map<String, Object>> removeFromCart(@RequestBody Map<String, Long> request,
-            HttpServletRequest httpRequest) {
-        Long userId = getAuthenticatedUserId(httpRequest); // Get from JWT instead of request
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long userId = getAuthenticatedUserId(user); // Get from JWT instead of request
         Long gameId = request.get("gameId");
 
         System.out.println("Removing from cart - User ID: " + userId + ", Game ID: " + gameId);
 
-        cartService.removeFromCart(userId, gameId);
-        Integer newCount = cartService.getCartItemCount(userId);
+        CartSummaryDto cart = cartService.removeFromCart(userId, gameId);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", "Item removed from cart");
-        response.put("cartItemCount", newCount);
+        response.put("cartItemCount", cart.getCount());
+        response.put("total", cart.getTotal());
+        response.put("totalCents", cart.getTotalCents());
+        response.put("version", cart.getVersion());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Apply several add / update / remove operations in one request and
+     * return the final cart
+     * POST /api/cart/batch
+     * Body: { "operations": [ { "type": "add", "gameId": 1, "quantity": 2 },
+     *                         { "type": "update", "gameId": 5, "quantity": 3 },
+     *                         { "type": "remove", "gameId": 7 } ] }
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> applyBatch(@RequestBody CartBatchRequestDto request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long userId = getAuthenticatedUserId(user);
+
+        CartSummaryDto cart = cartService.applyBatch(userId, request.getOperations());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("items", cart.getItems());
+        response.put("count", cart.getCount());
+        response.put("cartItemCount", cart.getCount());
+        response.put("total", cart.getTotal());
+        response.put("totalCents", cart.getTotalCents());
+        response.put("version", cart.getVersion());
 
         return ResponseEntity.ok(response);
     }
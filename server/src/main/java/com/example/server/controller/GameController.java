@@ -1,21 +1,42 @@
 package com.example.server.controller;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
-// import java.util.Map;
-// import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
-// import org.springframework.http.ResponseEntity;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 // import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-// import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 // import org.springframework.web.bind.annotation.PutMapping;
 // import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.server.config.CatalogRepresentation;
+import com.example.server.dto.GameFacetQueryDto;
+import com.example.server.dto.GameFilterDto;
+import com.example.server.dto.GameQueryResultDto;
+import com.example.server.dto.StorefrontDto;
 import com.example.server.model.Game;
+import com.example.server.service.CatalogAnnotator;
+import com.example.server.service.CatalogResponseCache;
+import com.example.server.service.GameImportService;
 import com.example.server.service.GameService;
+import com.example.server.util.AuthenticatedUser;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/api/games")
@@ -23,18 +44,40 @@ public class GameController {
 
     // Dependency injections and endpoint mappings
 
+    private static final String IMPORT_TOKEN_HEADER = "X-Import-Token";
+
     private final GameService gameService;
+    private final GameImportService gameImportService;
+    private final CatalogResponseCache responseCache;
+    private final CatalogAnnotator annotator;
 
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService, GameImportService gameImportService,
+            CatalogResponseCache responseCache, CatalogAnnotator annotator) {
         this.gameService = gameService;
+        this.gameImportService = gameImportService;
+        this.responseCache = responseCache;
+        this.annotator = annotator;
     }
 
     // Endpoint methods
     // e.g., addGame, getAllGames, getGameById, updateGame, deleteGame, searchGames
 
+    /**
+     * Get all games, or one keyset page of them
+     * GET /api/games
+     * GET /api/games?limit=24&after=120&fields=id,title,image,currentPrice
+     *
+     * Every list endpoint also has a logged-in variant, ?annotate=user, that
+     * adds inCart, cartQuantity and inWishlist to each game.
+     */
     @GetMapping
-    public List<Game> getAllGames() {
-        return gameService.getAllGames();
+    public ResponseEntity<?> getAllGames(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request,
+            HttpServletResponse response) {
+        return cached(request, response, user,
+                () -> listOrPageBody(gameService::getAllGames, GameFilterDto.none(), limit, after, fields));
     }
 
     // @PostMapping
@@ -71,6 +114,34 @@ public class GameController {
     // return ResponseEntity.ok(response);
     // }
 
+    /**
+     * Stream a publisher feed into the catalog
+     * POST /api/games/import
+     * Header: X-Import-Token (must equal catalog.import.token; the endpoint is
+     * disabled while no token is configured)
+     * Content-Type: application/x-ndjson (one game object per line)
+     * or text/csv (header row of game property names)
+     */
+    @PostMapping(value = "/import", consumes = { "application/x-ndjson", "text/csv" })
+    public ResponseEntity<?> importGames(HttpServletRequest request,
+            @RequestHeader(value = IMPORT_TOKEN_HEADER, required = false) String token) throws IOException {
+        if (!gameImportService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!gameImportService.isAuthorized(token)) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Invalid or missing " + IMPORT_TOKEN_HEADER);
+            response.put("error", "FORBIDDEN");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        GameImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                        ? GameImportService.Format.CSV
+                        : GameImportService.Format.NDJSON;
+        return ResponseEntity.ok(gameImportService.importGames(request.getInputStream(), format));
+    }
+
     /**
      * Delete all games (bulk delete for testing/admin purposes)
      * DELETE /api/games/bulk/all
@@ -120,13 +191,57 @@ public class GameController {
 
     // ==================== ENHANCED ENDPOINTS ====================
 
+    /**
+     * Get the precomputed home page shelves
+     * GET /api/games/storefront
+     */
+    @GetMapping("/storefront")
+    public StorefrontDto getStorefront() {
+        return gameService.getStorefront();
+    }
+
+    /**
+     * Search games by title (every term must appear in the title)
+     * GET /api/games/search?q=dark souls&limit=20
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchGames(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "" + GameService.DEFAULT_SEARCH_LIMIT) int limit,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request) {
+        return respond(request, user, gameService.searchGames(query, Math.min(limit, GameService.MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Filter by any combination of facets and get per-facet counts
+     * GET /api/games/query?genre=Action,RPG&platform=PC&minRating=4&maxPrice=20&onSale=true
+     */
+    @GetMapping("/query")
+    public GameQueryResultDto queryGames(@RequestParam(required = false) List<String> genre,
+            @RequestParam(required = false) List<String> platform,
+            @RequestParam(required = false) List<String> badge,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean onSale,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after) {
+        GameFacetQueryDto query = new GameFacetQueryDto(genre, platform, badge, minRating, minPrice, maxPrice,
+                onSale);
+        return gameService.queryGames(query, after, limit);
+    }
+
     /**
      * Get games on sale
      * GET /api/games/sale
      */
     @GetMapping("/sale")
-    public List<Game> getGamesOnSale() {
-        return gameService.getGamesOnSale();
+    public ResponseEntity<?> getGamesOnSale(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request,
+            HttpServletResponse response) {
+        GameFilterDto filter = new GameFilterDto(null, null, null, null, true);
+        return cached(request, response, user, () -> listOrPageBody(gameService::getGamesOnSale, filter, limit, after, fields));
     }
 
     /**
@@ -134,8 +249,13 @@ public class GameController {
      * GET /api/games/genre/{genre}
      */
     @GetMapping("/genre/{genre}")
-    public List<Game> getGamesByGenre(@PathVariable String genre) {
-        return gameService.getGamesByGenre(genre);
+    public ResponseEntity<?> getGamesByGenre(@PathVariable String genre,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request) {
+        GameFilterDto filter = new GameFilterDto(genre, null, null, null, null);
+        return listOrPage(request, user, () -> gameService.getGamesByGenre(genre), filter, limit, after, fields);
     }
 
     /**
@@ -143,8 +263,13 @@ public class GameController {
      * GET /api/games/platform/{platform}
      */
     @GetMapping("/platform/{platform}")
-    public List<Game> getGamesByPlatform(@PathVariable String platform) {
-        return gameService.getGamesByPlatform(platform);
+    public ResponseEntity<?> getGamesByPlatform(@PathVariable String platform,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request) {
+        GameFilterDto filter = new GameFilterDto(null, platform, null, null, null);
+        return listOrPage(request, user, () -> gameService.getGamesByPlatform(platform), filter, limit, after, fields);
     }
 
     /**
@@ -152,8 +277,23 @@ public class GameController {
      * GET /api/games/featured
      */
     @GetMapping("/featured")
-    public List<Game> getFeaturedGames() {
-        return gameService.getFeaturedGames();
+    public ResponseEntity<?> getFeaturedGames(@RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request,
+            HttpServletResponse response) {
+        GameFilterDto filter = new GameFilterDto(null, null, "FEATURED", null, null);
+        return cached(request, response, user, () -> listOrPageBody(gameService::getFeaturedGames, filter, limit, after, fields));
+    }
+
+    /**
+     * Get games by current price range, cheapest first
+     * GET /api/games/price?min=0&max=19.99
+     */
+    @GetMapping("/price")
+    public ResponseEntity<?> getGamesByPriceRange(@RequestParam Double min, @RequestParam Double max,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request) {
+        return respond(request, user, gameService.getGamesByPriceRange(min, max));
     }
 
     /**
@@ -161,8 +301,108 @@ public class GameController {
      * GET /api/games/rating/{minRating}
      */
     @GetMapping("/rating/{minRating}")
-    public List<Game> getGamesByRating(@PathVariable Double minRating) {
-        return gameService.getGamesByRating(minRating);
+    public ResponseEntity<?> getGamesByRating(@PathVariable Double minRating,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request) {
+        GameFilterDto filter = new GameFilterDto(null, null, null, minRating, null);
+        return listOrPage(request, user, () -> gameService.getGamesByRating(minRating), filter, limit, after, fields);
+    }
+
+    /**
+     * Return the full list for plain requests, or a keyset page when any of
+     * limit/after/fields is given (the page is queried from the database with
+     * only the requested columns)
+     */
+    private ResponseEntity<?> listOrPage(HttpServletRequest request, AuthenticatedUser user,
+            Supplier<List<Game>> games, GameFilterDto filter, Integer limit, Long after, String fields) {
+        return respond(request, user, listOrPageBody(games, filter, limit, after, fields));
+    }
+
+    /**
+     * Return an uncached catalog body, annotated for the user when asked
+     */
+    private ResponseEntity<?> respond(HttpServletRequest request, AuthenticatedUser user, Object body) {
+        if (CatalogAnnotator.isRequested(request)) {
+            return annotated(user, body);
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * The ?annotate=user variant: the shared catalog body joined in memory
+     * with the user's cart and wishlist. Private to the user, so it skips
+     * the response cache and the catalog ETag. The catalog routes are
+     * public, so an anonymous request gets 401 rather than a guess.
+     */
+    private ResponseEntity<?> annotated(AuthenticatedUser user, Object body) {
+        if (user == null || user.userId() == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Log in to use " + CatalogAnnotator.PARAM + "=user");
+            response.put("error", "UNAUTHORIZED");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore().cachePrivate())
+                .body(annotator.annotate(body, user.userId()));
+    }
+
+    private Object listOrPageBody(Supplier<List<Game>> games, GameFilterDto filter, Integer limit, Long after,
+            String fields) {
+        if (limit == null && after == null && fields == null) {
+            return games.get();
+        }
+        return gameService.getGamesPage(filter, after, limit, fields);
+    }
+
+    /**
+     * Serve a hot catalog read from the pre-serialized response cache, writing
+     * the stored JSON (or its gzip copy when the client accepts it) as-is.
+     * Binary formats (protobuf, CBOR, Smile) skip the cache and go through the
+     * regular message converters.
+     */
+    private ResponseEntity<?> cached(HttpServletRequest request, HttpServletResponse response,
+            AuthenticatedUser user, Supplier<Object> body) {
+        if (CatalogAnnotator.isRequested(request)) {
+            return annotated(user, body.get());
+        }
+        if (CatalogRepresentation.of(request) != CatalogRepresentation.JSON) {
+            return ResponseEntity.ok().body(body.get());
+        }
+        String key = request.getQueryString() != null
+                ? request.getRequestURI() + "?" + request.getQueryString()
+                : request.getRequestURI();
+        CatalogResponseCache.CachedResponse cached = responseCache.get(key, body);
+        boolean gzip = acceptsGzip(request);
+        String etag = gzip ? cached.gzipETag() : cached.etag();
+
+        // Replaces the identity ETag the interceptor set: each coding has its own
+        response.setHeader(HttpHeaders.ETAG, etag);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .eTag(etag);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.gzip());
+        }
+        return builder.body(cached.json());
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" explicitly refuses gzip
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 
 }
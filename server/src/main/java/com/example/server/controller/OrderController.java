@@ -0,0 +1,81 @@
+package com.example.server.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.server.dto.OrderDto;
+import com.example.server.service.CartService;
+import com.example.server.service.OrderService;
+import com.example.server.util.AuthenticatedUser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    /**
+     * Get the authenticated user ID from the principal set by the JWT filter
+     */
+    private Long getAuthenticatedUserId(AuthenticatedUser user) {
+        if (user != null && user.userId() != null) {
+            return user.userId();
+        }
+        throw new RuntimeException("User not authenticated or token not found");
+    }
+
+    /**
+     * Check out the whole cart as a new order
+     * POST /api/orders/checkout
+     * Header: Idempotency-Key (optional) - resending the same key returns the
+     * first order (200, Idempotent-Replayed: true) instead of placing another
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<Map<String, Object>> checkout(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Long userId = getAuthenticatedUserId(user);
+
+        OrderService.Checkout checkout = orderService.checkout(userId, idempotencyKey);
+        OrderDto order = checkout.order();
+
+        if (!checkout.replayed()) {
+            System.out.println("Order placed - User ID: " + userId + ", Order ID: " + order.getId()
+                    + ", Total cents: " + order.getTotalCents());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", checkout.replayed() ? "Order already placed" : "Order placed");
+        response.put("order", order);
+        // A new order empties the cart; a replay reports the cart as it is now
+        response.put("cartItemCount", checkout.replayed() ? cartService.getCartItemCount(userId) : 0);
+        response.put("replayed", checkout.replayed());
+
+        if (checkout.replayed()) {
+            return ResponseEntity.ok().header("Idempotent-Replayed", "true").body(response);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Get the user's orders, newest first
+     * GET /api/orders
+     */
+    @GetMapping
+    public ResponseEntity<List<OrderDto>> getOrders(@AuthenticationPrincipal AuthenticatedUser user) {
+        Long userId = getAuthenticatedUserId(user);
+        return ResponseEntity.ok(orderService.getOrders(userId));
+    }
+}
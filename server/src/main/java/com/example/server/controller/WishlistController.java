@@ -2,15 +2,14 @@ package com.example.server.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.server.dto.MembershipDto;
 import com.example.server.model.WishlistItem;
 import com.example.server.service.WishlistService;
-import com.example.server.util.JwtUtil;
+import com.example.server.util.AuthenticatedUser;
 
-import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -22,21 +21,12 @@ public class WishlistController {
     @Autowired
     private WishlistService wishlistService;
 
-    @Autowired
-    private JwtUtil jwtUtil;
-
     /**
-     * Get the authenticated user ID from JWT token
+     * Get the authenticated user ID from the principal set by the JWT filter
      */
-    private Long getAuthenticatedUserId(HttpServletRequest request) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated()) {
-            // Extract JWT token from Authorization header
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-                return jwtUtil.extractUserId(token);
-            }
+    private Long getAuthenticatedUserId(AuthenticatedUser user) {
+        if (user != null && user.userId() != null) {
+            return user.userId();
         }
         throw new RuntimeException("User not authenticated or token not found");
     }
@@ -47,9 +37,9 @@ public class WishlistController {
      */
     @PostMapping("/add")
     public ResponseEntity<Map<String, Object>> addToWishlist(@RequestBody Map<String, Long> request,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getAuthenticatedUserId(httpRequest);
+            Long userId = getAuthenticatedUserId(user);
             Long gameId = request.get("gameId");
 
             System.out.println("Adding to wishlist - User ID: " + userId + ", Game ID: " + gameId);
@@ -78,9 +68,9 @@ public class WishlistController {
      */
     @DeleteMapping("/remove")
     public ResponseEntity<Map<String, Object>> removeFromWishlist(@RequestBody Map<String, Long> request,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getAuthenticatedUserId(httpRequest);
+            Long userId = getAuthenticatedUserId(user);
             Long gameId = request.get("gameId");
 
             System.out.println("Removing from wishlist - User ID: " + userId + ", Game ID: " + gameId);
@@ -108,21 +98,20 @@ public class WishlistController {
      */
     @PostMapping("/toggle")
     public ResponseEntity<Map<String, Object>> toggleWishlist(@RequestBody Map<String, Long> request,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getAuthenticatedUserId(httpRequest);
+            Long userId = getAuthenticatedUserId(user);
             Long gameId = request.get("gameId");
 
             System.out.println("Toggling wishlist - User ID: " + userId + ", Game ID: " + gameId);
 
-            boolean isInWishlist = wishlistService.toggleWishlist(userId, gameId);
-            Integer wishlistCount = wishlistService.getWishlistCount(userId);
+            WishlistService.ToggleResult result = wishlistService.toggleWishlist(userId, gameId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("isInWishlist", isInWishlist);
-            response.put("message", isInWishlist ? "Game added to wishlist" : "Game removed from wishlist");
-            response.put("wishlistCount", wishlistCount);
+            response.put("isInWishlist", result.inWishlist());
+            response.put("message", result.inWishlist() ? "Game added to wishlist" : "Game removed from wishlist");
+            response.put("wishlistCount", result.count());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -138,9 +127,9 @@ public class WishlistController {
      * GET /api/wishlist
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getWishlist(HttpServletRequest httpRequest) {
+    public ResponseEntity<Map<String, Object>> getWishlist(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getAuthenticatedUserId(httpRequest);
+            Long userId = getAuthenticatedUserId(user);
             List<WishlistItem> items = wishlistService.getWishlistItems(userId);
             Integer count = wishlistService.getWishlistCount(userId);
 
@@ -163,9 +152,9 @@ public class WishlistController {
      * GET /api/wishlist/count
      */
     @GetMapping("/count")
-    public ResponseEntity<Map<String, Integer>> getWishlistCount(HttpServletRequest httpRequest) {
+    public ResponseEntity<Map<String, Integer>> getWishlistCount(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getAuthenticatedUserId(httpRequest);
+            Long userId = getAuthenticatedUserId(user);
             Integer count = wishlistService.getWishlistCount(userId);
 
             Map<String, Integer> response = new HashMap<>();
@@ -179,15 +168,40 @@ public class WishlistController {
         }
     }
 
+    /**
+     * Check many games at once - which are in the wishlist and which in the cart
+     * GET /api/wishlist/membership?gameIds=1,2,3 (omit gameIds for the complete sets)
+     */
+    @GetMapping("/membership")
+    public ResponseEntity<Map<String, Object>> getMembership(@RequestParam(required = false) List<Long> gameIds,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            Long userId = getAuthenticatedUserId(user);
+            MembershipDto membership = wishlistService.getMembership(userId, gameIds);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("wishlist", membership.getWishlist());
+            response.put("cart", membership.getCart());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Check if game is in wishlist
      * GET /api/wishlist/check/{gameId}
      */
     @GetMapping("/check/{gameId}")
     public ResponseEntity<Map<String, Object>> checkWishlistStatus(@PathVariable Long gameId,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getAuthenticatedUserId(httpRequest);
+            Long userId = getAuthenticatedUserId(user);
             boolean isInWishlist = wishlistService.isInWishlist(userId, gameId);
 
             Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,23 @@
+package com.example.server.dto;
+
+import com.example.server.model.Game;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A game as seen by one user: the game's own fields plus whether it is in
+ * their cart (and how many) and in their wishlist
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnnotatedGameDto {
+    @JsonUnwrapped
+    private Game game;
+    private boolean inCart;
+    private int cartQuantity;
+    private boolean inWishlist;
+}
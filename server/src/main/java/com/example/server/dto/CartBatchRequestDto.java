@@ -0,0 +1,14 @@
+package com.example.server.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartBatchRequestDto {
+    private List<CartOperationDto> operations; // applied in order
+}
@@ -0,0 +1,21 @@
+package com.example.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One step of a POST /api/cart/batch request
+ *
+ * type "add": add quantity units (default 1)
+ * type "update": set the quantity, adding the line if needed (0 or less removes it)
+ * type "remove": remove the line
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartOperationDto {
+    private String type;
+    private Long gameId;
+    private Integer quantity;
+}
@@ -0,0 +1,44 @@
+package com.example.server.dto;
+
+import java.util.List;
+
+import com.example.server.model.CartItem;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A user's cart lines with the item count and totals, computed in one pass
+ * over a single fetch-join query (see PricingEngine.summarize)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartSummaryDto {
+    private List<CartItem> items;
+    private int count; // sum of quantities
+    private long subtotalCents; // sum of line totals at current prices
+    private long taxCents;
+    private long totalCents; // subtotal + tax
+    private long version; // cart version these items were read at
+
+    /**
+     * Total in currency units, for clients that read "total"
+     */
+    public double getTotal() {
+        return totalCents / 100.0;
+    }
+
+    /**
+     * The line for one game, or null if it is not in the cart
+     */
+    public CartItem findItem(Long gameId) {
+        for (CartItem item : items) {
+            if (item.getGame() != null && item.getGame().getId().equals(gameId)) {
+                return item;
+            }
+        }
+        return null;
+    }
+}
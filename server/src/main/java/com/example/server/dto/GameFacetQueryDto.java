@@ -0,0 +1,21 @@
+package com.example.server.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameFacetQueryDto {
+    // Values within one facet are OR-ed, facets are AND-ed
+    private List<String> genres;
+    private List<String> platforms;
+    private List<String> badges;
+    private Double minRating;
+    private Double minPrice;
+    private Double maxPrice;
+    private Boolean onSale;
+}
@@ -0,0 +1,20 @@
+package com.example.server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameFilterDto {
+    private String genre;
+    private String platform;
+    private String badge;
+    private Double minRating;
+    private Boolean onSale;
+
+    public static GameFilterDto none() {
+        return new GameFilterDto();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.server.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GamePageDto {
+    private List<Map<String, Object>> items;
+    private Long nextCursor; // pass as "after" to fetch the next page, null on the last page
+    private boolean hasMore;
+}
@@ -0,0 +1,21 @@
+package com.example.server.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.server.model.Game;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameQueryResultDto {
+    private List<Game> items;
+    private int total; // number of matches across all pages
+    private Long nextCursor;
+    private boolean hasMore;
+    private Map<String, Map<String, Integer>> facets; // facet -> value -> count
+}
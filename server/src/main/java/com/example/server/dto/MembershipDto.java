@@ -0,0 +1,18 @@
+package com.example.server.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Which of the requested games a user has wishlisted or in the cart
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MembershipDto {
+    private List<Long> wishlist; // game IDs in the wishlist
+    private List<Long> cart; // game IDs in the cart
+}
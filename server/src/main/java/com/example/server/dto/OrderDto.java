@@ -0,0 +1,40 @@
+package com.example.server.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.server.model.Order;
+import com.example.server.model.OrderLine;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An order with its lines, as returned by checkout and the order history
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderDto {
+    private Long id;
+    private String status;
+    private int itemCount; // sum of quantities
+    private long subtotalCents;
+    private long taxCents;
+    private long totalCents;
+    private LocalDateTime createdAt;
+    private List<OrderLine> lines;
+
+    public OrderDto(Order order, List<OrderLine> lines) {
+        this(order.getId(), order.getStatus(), order.getItemCount(), order.getSubtotalCents(),
+                order.getTaxCents(), order.getTotalCents(), order.getCreatedAt(), lines);
+    }
+
+    /**
+     * Total in currency units, for clients that read "total"
+     */
+    public double getTotal() {
+        return totalCents / 100.0;
+    }
+}
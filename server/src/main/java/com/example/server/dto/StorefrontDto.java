@@ -0,0 +1,19 @@
+package com.example.server.dto;
+
+import java.util.List;
+
+import com.example.server.model.Game;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorefrontDto {
+    private List<Game> featuredGames;
+    private List<Game> saleGames;
+    private List<Game> freeGames;
+    private List<Game> popularGames;
+}
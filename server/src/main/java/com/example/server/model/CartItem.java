@@ -1,5 +1,7 @@
 package com.example.server.model;
 
+import com.example.server.util.Cents;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -11,7 +13,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+        // One row per (user, game): adding again bumps the quantity (see CartItemRepository.upsertIncrement)
+        @UniqueConstraint(name = "uk_cart_items_user_game", columnNames = { "user_id", "game_id" })
+})
 public class CartItem {
 
     @Id
@@ -35,17 +40,23 @@ public class CartItem {
     @Column(name = "added_at")
     private java.time.LocalDateTime addedAt;
 
+    // Last time the line was added or its quantity changed; AbandonedCartSweeper expires carts by it
+    @Column(name = "updated_at")
+    private java.time.LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         addedAt = java.time.LocalDateTime.now();
+        updatedAt = addedAt;
     }
 
     // Helper method to calculate total price for this cart item
     public Double getTotalPrice() {
-        if (game != null) {
-            Double currentPrice = game.getCurrentPrice(); // Uses the new helper method
-            return currentPrice != null ? currentPrice * quantity : 0.0;
-        }
-        return 0.0;
+        return Cents.toAmount(getTotalPriceCents());
+    }
+
+    // Exact line total in cents (unit price x quantity)
+    public long getTotalPriceCents() {
+        return game != null && quantity != null ? Cents.lineTotalCents(game.getCurrentPriceCents(), quantity) : 0L;
     }
 }
@@ -5,6 +5,9 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -15,11 +18,19 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import jakarta.persistence.Id;
 
+import com.example.server.util.Cents;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "games")
+@Table(name = "games", indexes = {
+        @Index(name = "idx_games_genre", columnList = "genre"),
+        @Index(name = "idx_games_platform", columnList = "platform"),
+        @Index(name = "idx_games_badge", columnList = "badge"),
+        @Index(name = "idx_games_current_price", columnList = "current_price"),
+        @Index(name = "idx_games_on_sale", columnList = "is_on_sale, current_price")
+})
 public class Game {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -60,13 +71,34 @@ public class Game {
 
     private String badge; // e.g., "SALE", "NEW", "FEATURED"
 
+    // Materialized copies of getCurrentPrice()/isOnSale() so price and sale
+    // queries can use an index instead of evaluating a CASE per row
+    @Column(name = "current_price")
+    private Double currentPrice;
+
+    @Column(name = "is_on_sale")
+    private Boolean onSale;
+
     // Helper method to get current price (discount or original)
     public Double getCurrentPrice() {
         return discountPrice != null ? discountPrice : originalPrice;
     }
 
+    // Current price in whole cents, for exact arithmetic (see PricingEngine)
+    public long getCurrentPriceCents() {
+        return Cents.toCents(getCurrentPrice());
+    }
+
     // Helper method to check if game is on sale
     public Boolean isOnSale() {
         return discountPrice != null && discountPrice < originalPrice;
     }
+
+    // Recompute the materialized pricing columns from the price fields
+    @PrePersist
+    @PreUpdate
+    public void refreshDerivedPricing() {
+        currentPrice = getCurrentPrice();
+        onSale = originalPrice != null && isOnSale();
+    }
 }
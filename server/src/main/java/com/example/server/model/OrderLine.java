@@ -0,0 +1,48 @@
+package com.example.server.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One game in an order, with the title and price it was bought at.
+ * Inserted in JDBC batches by OrderService, so it references its order by id.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "order_lines", indexes = {
+        @Index(name = "idx_order_lines_order", columnList = "order_id")
+})
+public class OrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "game_id", nullable = false)
+    private Long gameId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "unit_price_cents", nullable = false)
+    private Long unitPriceCents;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "line_total_cents", nullable = false)
+    private Long lineTotalCents;
+}
@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.example.server.model.CartItem;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +24,30 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      */
     List<CartItem> findByUserId(Long userId);
 
+    /**
+     * Load a user's whole cart with every game in the same query
+     *
+     * @param userId the user ID
+     * @return cart items, oldest first
+     */
+    @Query("SELECT c FROM CartItem c JOIN FETCH c.game WHERE c.userId = :userId ORDER BY c.addedAt, c.id")
+    List<CartItem> findCartWithGames(@Param("userId") Long userId);
+
+    /**
+     * Set the quantity of an existing cart line without loading it first
+     * (and mark it active for AbandonedCartSweeper)
+     *
+     * @param userId   the user ID
+     * @param gameId   the game ID
+     * @param quantity the new quantity
+     * @return number of rows updated (0 if the game is not in the cart)
+     */
+    @Modifying
+    @Query("UPDATE CartItem c SET c.quantity = :quantity, c.updatedAt = LOCAL DATETIME "
+            + "WHERE c.userId = :userId AND c.game.id = :gameId")
+    int updateQuantity(@Param("userId") Long userId, @Param("gameId") Long gameId,
+            @Param("quantity") Integer quantity);
+
     /**
      * Find a specific cart item by user ID and game ID
      * 
@@ -32,6 +57,22 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      */
     Optional<CartItem> findByUserIdAndGameId(Long userId, Long gameId);
 
+    /**
+     * Add one unit of a game to the user's cart in a single statement:
+     * inserts a new line with quantity 1, or bumps the quantity of the
+     * existing line (unique key on user_id, game_id). An unknown game fails
+     * the game_id foreign key instead of needing a lookup first.
+     *
+     * @param userId the user ID
+     * @param gameId the game ID
+     * @return 1 if a row was inserted, 2 if an existing row was updated (MySQL semantics)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (user_id, game_id, quantity, added_at, updated_at) "
+            + "VALUES (:userId, :gameId, 1, NOW(), NOW()) "
+            + "ON DUPLICATE KEY UPDATE quantity = quantity + 1, updated_at = NOW()", nativeQuery = true)
+    int upsertIncrement(@Param("userId") Long userId, @Param("gameId") Long gameId);
+
     /**
      * Check if a game is already in user's cart
      * 
@@ -58,7 +99,18 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      */
     @Modifying
     @Transactional
-    void deleteByUserIdAndGameId(Long userId, Long gameId);
+    @Query("DELETE FROM CartItem c WHERE c.userId = :userId AND c.game.id = :gameId")
+    void deleteByUserIdAndGameId(@Param("userId") Long userId, @Param("gameId") Long gameId);
+
+    /**
+     * Delete every cart line that references one of the given games
+     *
+     * @param gameIds the game IDs being removed from the catalog
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.game.id IN :gameIds")
+    int deleteByGameIdIn(@Param("gameIds") Collection<Long> gameIds);
 
     /**
      * Count total items in user's cart
@@ -71,8 +123,8 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     /**
      * Calculate total price of all items in user's cart
-     * Uses discount price if available, otherwise original price
+     * Uses the materialized current price (discount price if available, otherwise original price)
      */
-    @Query("SELECT COALESCE(SUM(c.quantity * (CASE WHEN c.game.discountPrice IS NOT NULL THEN c.game.discountPrice ELSE c.game.originalPrice END)), 0.0) FROM CartItem c WHERE c.userId = :userId")
+    @Query("SELECT COALESCE(SUM(c.quantity * c.game.currentPrice), 0.0) FROM CartItem c WHERE c.userId = :userId")
     Double getTotalCartValue(@Param("userId") Long userId);
 }
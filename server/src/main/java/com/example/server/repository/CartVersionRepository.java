@@ -0,0 +1,45 @@
+package com.example.server.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.server.model.CartVersion;
+
+@Repository
+public interface CartVersionRepository extends JpaRepository<CartVersion, Long> {
+
+    /**
+     * Current version of a user's cart
+     *
+     * @param userId the user ID
+     * @return the version, empty if the cart was never changed
+     */
+    @Query("SELECT v.version FROM CartVersion v WHERE v.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") Long userId);
+
+    /**
+     * Compare-and-set the version to expected + 1
+     *
+     * @param userId   the user ID
+     * @param expected the version read at the start of the mutation
+     * @return 1 if advanced, 0 if another writer got there first
+     */
+    @Modifying
+    @Query("UPDATE CartVersion v SET v.version = v.version + 1 WHERE v.userId = :userId AND v.version = :expected")
+    int advance(@Param("userId") Long userId, @Param("expected") Long expected);
+
+    /**
+     * Create the version row for a cart's first mutation (fails on a duplicate key if another writer created it)
+     *
+     * @param userId the user ID
+     * @return number of rows inserted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cart_versions (user_id, version) VALUES (:userId, 1)", nativeQuery = true)
+    int create(@Param("userId") Long userId);
+}
@@ -0,0 +1,40 @@
+package com.example.server.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.server.model.CheckoutIdempotencyKey;
+
+@Repository
+public interface CheckoutIdempotencyKeyRepository extends JpaRepository<CheckoutIdempotencyKey, Long> {
+
+    /**
+     * Order already placed for this user and key, if any
+     */
+    @Query("SELECT k.orderId FROM CheckoutIdempotencyKey k WHERE k.userId = :userId AND k.idempotencyKey = :key")
+    Optional<Long> findOrderId(@Param("userId") Long userId, @Param("key") String key);
+
+    /**
+     * Record a key; fails on the unique key if the same submission is being placed concurrently
+     */
+    @Modifying
+    @Query(value = "INSERT INTO checkout_idempotency_keys (user_id, idempotency_key, order_id, created_at) "
+            + "VALUES (:userId, :key, :orderId, :createdAt)", nativeQuery = true)
+    int insert(@Param("userId") Long userId, @Param("key") String key, @Param("orderId") Long orderId,
+            @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Delete up to limit expired keys (LIMIT keeps each statement short)
+     *
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM checkout_idempotency_keys WHERE created_at < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -1,16 +1,20 @@
 package com.example.server.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.server.model.Game;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface GameRepository extends JpaRepository<Game, Long> {
+public interface GameRepository extends JpaRepository<Game, Long>, GameRepositoryCustom {
 
     // ==================== BASIC SEARCH ====================
 
@@ -25,7 +29,7 @@ public interface GameRepository extends JpaRepository<Game, Long> {
     /**
      * Find games on sale (discount price is not null and less than original price)
      */
-    @Query("SELECT g FROM Game g WHERE g.discountPrice IS NOT NULL AND g.discountPrice < g.originalPrice")
+    @Query("SELECT g FROM Game g WHERE g.onSale = true")
     List<Game> findGamesOnSale();
 
     /**
@@ -49,11 +53,41 @@ public interface GameRepository extends JpaRepository<Game, Long> {
     List<Game> findByBadgeIgnoreCase(String badge);
 
     /**
-     * Find games by price range (using current price logic)
+     * Find games by price range (uses the indexed current_price column)
      */
-    @Query("SELECT g FROM Game g WHERE (CASE WHEN g.discountPrice IS NOT NULL THEN g.discountPrice ELSE g.originalPrice END) BETWEEN :minPrice AND :maxPrice")
+    @Query("SELECT g FROM Game g WHERE g.currentPrice BETWEEN :minPrice AND :maxPrice ORDER BY g.currentPrice, g.id")
     List<Game> findByPriceRange(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice);
 
+    // ==================== BULK OPERATIONS ====================
+
+    /**
+     * Next chunk of game IDs in id order (keyset scan used by bulk delete)
+     */
+    @Query("SELECT g.id FROM Game g WHERE g.id > :after ORDER BY g.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+    /**
+     * Set-based delete of the given games
+     *
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Game g WHERE g.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Fill current_price / is_on_sale for rows written before the columns existed
+     *
+     * @return number of rows updated
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Game g SET g.currentPrice = COALESCE(g.discountPrice, g.originalPrice), "
+            + "g.onSale = (CASE WHEN g.discountPrice IS NOT NULL AND g.discountPrice < g.originalPrice "
+            + "THEN true ELSE false END) "
+            + "WHERE g.currentPrice IS NULL OR g.onSale IS NULL")
+    int backfillDerivedPricing();
+
     // ==================== UTILITY METHODS ====================
 
     /**
@@ -0,0 +1,20 @@
+package com.example.server.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.server.dto.GameFilterDto;
+
+public interface GameRepositoryCustom {
+
+    /**
+     * Keyset page of games ordered by id, selecting only the requested fields
+     *
+     * @param filter optional genre/platform/badge/rating/sale filter
+     * @param after  return games with an id greater than this (null for the first page)
+     * @param limit  maximum number of rows to return
+     * @param fields Game properties to select (see GameRepositoryImpl.ALL_FIELDS)
+     * @return one map per game containing only the requested fields
+     */
+    List<Map<String, Object>> findPage(GameFilterDto filter, Long after, int limit, List<String> fields);
+}
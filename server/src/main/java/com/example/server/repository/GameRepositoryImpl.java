@@ -0,0 +1,114 @@
+package com.example.server.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.server.dto.GameFilterDto;
+import com.example.server.model.Game;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Criteria-based queries that Spring Data cannot derive: keyset pagination
+ * with a dynamic column list, so sparse fieldsets are selected in SQL instead
+ * of being trimmed after loading full entities.
+ */
+public class GameRepositoryImpl implements GameRepositoryCustom {
+
+    // Persisted Game columns that can be requested with fields=
+    private static final Set<String> COLUMN_FIELDS = Set.of(
+            "id", "title", "genre", "platform", "originalPrice", "discountPrice",
+            "discountPercentage", "rating", "image", "badge", "currentPrice", "onSale");
+
+    // Fields returned when a page request does not specify fields=
+    public static final List<String> ALL_FIELDS = List.of(
+            "id", "title", "genre", "platform", "originalPrice", "discountPrice",
+            "discountPercentage", "rating", "image", "badge", "currentPrice", "onSale");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findPage(GameFilterDto filter, Long after, int limit, List<String> fields) {
+        // id is always selected because it is the keyset cursor
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add("id");
+        for (String field : fields) {
+            if (!COLUMN_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+            columns.add(field);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Game> game = query.from(Game.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String column : columns) {
+            selections.add(game.get(column).alias(column));
+        }
+
+        query.multiselect(selections)
+                .where(buildPredicates(cb, game, filter, after).toArray(new Predicate[0]))
+                .orderBy(cb.asc(game.get("id")));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            result.add(toFieldMap(row, fields));
+        }
+        return result;
+    }
+
+    private List<Predicate> buildPredicates(CriteriaBuilder cb, Root<Game> game, GameFilterDto filter, Long after) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (after != null) {
+            predicates.add(cb.greaterThan(game.get("id"), after));
+        }
+        if (filter == null) {
+            return predicates;
+        }
+        // The games table uses MySQL's default case-insensitive collation, so plain
+        // equality matches the *IgnoreCase finders while still using the column indexes
+        if (filter.getGenre() != null) {
+            predicates.add(cb.equal(game.get("genre"), filter.getGenre()));
+        }
+        if (filter.getPlatform() != null) {
+            predicates.add(cb.equal(game.get("platform"), filter.getPlatform()));
+        }
+        if (filter.getBadge() != null) {
+            predicates.add(cb.equal(game.get("badge"), filter.getBadge()));
+        }
+        if (filter.getMinRating() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(game.get("rating"), filter.getMinRating()));
+        }
+        if (Boolean.TRUE.equals(filter.getOnSale())) {
+            predicates.add(cb.isTrue(game.get("onSale")));
+        }
+        return predicates;
+    }
+
+    private Map<String, Object> toFieldMap(Tuple row, List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", row.get("id"));
+        for (String field : fields) {
+            values.put(field, row.get(field));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.server.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.server.model.OrderLine;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+
+    /**
+     * Find the lines of several orders in one query
+     */
+    List<OrderLine> findByOrderIdInOrderById(Collection<Long> orderIds);
+}
@@ -0,0 +1,17 @@
+package com.example.server.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.server.model.Order;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * Find a user's orders, newest first
+     */
+    List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
+}
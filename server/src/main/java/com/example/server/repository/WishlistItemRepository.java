@@ -9,6 +9,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.example.server.model.WishlistItem;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,11 +34,45 @@ public interface WishlistItemRepository extends JpaRepository<WishlistItem, Long
     @Transactional
     void deleteByUserIdAndGameId(Long userId, Long gameId);
 
+    /**
+     * Delete one entry in a single statement (no load first), for the toggle
+     *
+     * @return 1 if the game was in the wishlist, else 0
+     */
+    @Modifying
+    @Query("DELETE FROM WishlistItem w WHERE w.userId = :userId AND w.game.id = :gameId")
+    int deleteEntry(@Param("userId") Long userId, @Param("gameId") Long gameId);
+
+    /**
+     * Insert an entry if the game exists, for the toggle; a concurrent insert
+     * of the same entry fails on the (user_id, game_id) unique key
+     *
+     * @return 1 if inserted, 0 if the game does not exist
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wishlist_items (user_id, game_id, added_date) "
+            + "SELECT :userId, g.id, :addedDate FROM games g WHERE g.id = :gameId", nativeQuery = true)
+    int insertEntry(@Param("userId") Long userId, @Param("gameId") Long gameId,
+            @Param("addedDate") LocalDateTime addedDate);
+
+    /**
+     * Delete every wishlist entry that references one of the given games
+     */
+    @Modifying
+    @Query("DELETE FROM WishlistItem w WHERE w.game.id IN :gameIds")
+    int deleteByGameIdIn(@Param("gameIds") Collection<Long> gameIds);
+
     /**
      * Check if a game is in user's wishlist
      */
     boolean existsByUserIdAndGameId(Long userId, Long gameId);
 
+    /**
+     * IDs of every game in a user's wishlist, without loading the games
+     */
+    @Query("SELECT w.game.id FROM WishlistItem w WHERE w.userId = :userId")
+    List<Long> findGameIdsByUserId(@Param("userId") Long userId);
+
     /**
      * Get wishlist count for a user
      */
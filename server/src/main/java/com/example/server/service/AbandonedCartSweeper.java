@@ -0,0 +1,108 @@
+package com.example.server.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Expires abandoned carts: carts none of whose lines was added or changed
+ * in the last cart.sweeper.ttl (by updated_at, which every cart upsert
+ * refreshes; rows from before that column fall back to added_at). All lines
+ * of such a cart are deleted; a cart with one recent change keeps its older
+ * lines too.
+ *
+ * Swept carts get their version bumped in the same transaction, so a
+ * mutation racing the sweep fails its compare-and-set and retries against
+ * the emptied cart, and their cached badge counts and write-behind copies
+ * are dropped afterwards. The delete re-checks each line's timestamp, so a
+ * line added to or changed in a cart after the window was read is kept even
+ * if the older lines of that cart go.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class AbandonedCartSweeper extends KeysetSweeper {
+
+    private static final String FIND_SQL = "SELECT c.id, c.user_id FROM cart_items c "
+            + "WHERE c.id > ? AND c.id <= ? AND COALESCE(c.updated_at, c.added_at) < ? "
+            + "AND NOT EXISTS (SELECT 1 FROM cart_items n "
+            + "WHERE n.user_id = c.user_id AND COALESCE(n.updated_at, n.added_at) >= ?)";
+
+    // findRows does not lock, so a line touched since then must survive the delete
+    private static final String DELETE_SQL = "DELETE FROM cart_items "
+            + "WHERE COALESCE(updated_at, added_at) < ? AND id IN ";
+
+    private static final String BUMP_VERSIONS_SQL = "UPDATE cart_versions SET version = version + 1 WHERE user_id IN ";
+
+    private final Duration ttl;
+    private final CartStore cartStore;
+    private final BadgeCounterCache badgeCounters;
+    private final MembershipCache membership;
+
+    public AbandonedCartSweeper(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry, CartStore cartStore, BadgeCounterCache badgeCounters,
+            MembershipCache membership, @Value("${cart.sweeper.ttl:30d}") Duration ttl,
+            @Value("${cart.sweeper.window-size:1000}") int windowSize,
+            @Value("${cart.sweeper.max-windows-per-run:50}") int maxWindowsPerRun,
+            @Value("${cart.sweeper.pause-ms:50}") long pauseMs) {
+        super("abandoned-carts", "cart_items", jdbcTemplate, transactionManager, meterRegistry,
+                windowSize, maxWindowsPerRun, pauseMs);
+        this.ttl = ttl;
+        this.cartStore = cartStore;
+        this.badgeCounters = badgeCounters;
+        this.membership = membership;
+    }
+
+    @Scheduled(initialDelayString = "${cart.sweeper.interval-ms:60000}",
+            fixedDelayString = "${cart.sweeper.interval-ms:60000}")
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    @Override
+    protected Map<Long, Long> findRows(long fromId, long toId) {
+        Timestamp cutoff = cutoff();
+        Map<Long, Long> rows = new LinkedHashMap<>();
+        jdbcTemplate.query(FIND_SQL, rs -> {
+            rows.put(rs.getLong(1), rs.getLong(2));
+        }, fromId, toId, cutoff, cutoff);
+        return rows;
+    }
+
+    @Override
+    protected int deleteRows(List<Long> ids) {
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(cutoff());
+        args.addAll(ids);
+        return jdbcTemplate.update(DELETE_SQL + "(" + placeholders(ids.size()) + ")", args.toArray());
+    }
+
+    @Override
+    protected void onDeleted(Set<Long> userIds) {
+        jdbcTemplate.update(BUMP_VERSIONS_SQL + "(" + placeholders(userIds.size()) + ")", userIds.toArray());
+    }
+
+    @Override
+    protected void afterCommit(Set<Long> userIds) {
+        cartStore.evict(userIds);
+        badgeCounters.invalidateUsers(userIds);
+        membership.invalidateUsers(userIds);
+    }
+
+    private Timestamp cutoff() {
+        return Timestamp.valueOf(LocalDateTime.now().minus(ttl));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.server.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Per-user cart and wishlist counts for the navbar badges.
+ *
+ * Counts are loaded from the store on first read and afterwards kept up to
+ * date by CartService and WishlistService as they mutate, so the badge polls
+ * never reach MySQL in steady state. The cache is bounded (least recently
+ * used users are evicted) and entries expire after a while, which also
+ * repairs any count that drifted because of a write made outside the
+ * services.
+ */
+@Component
+public class BadgeCounterCache {
+
+    private final Cache<Long, Integer> cartCounts;
+    private final Cache<Long, Integer> wishlistCounts;
+
+    public BadgeCounterCache(@Value("${badges.cache.max-users:100000}") long maxUsers,
+            @Value("${badges.cache.expire-after-write:30m}") Duration expireAfterWrite) {
+        this.cartCounts = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.wishlistCounts = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    // ==================== CART ====================
+
+    public int getCartCount(Long userId, Function<Long, Integer> loader) {
+        return cartCounts.get(userId, loader);
+    }
+
+    /**
+     * Store the count a cart mutation just read back
+     */
+    public void setCartCount(Long userId, int count) {
+        cartCounts.put(userId, count);
+    }
+
+    // ==================== WISHLIST ====================
+
+    public int getWishlistCount(Long userId, Function<Long, Integer> loader) {
+        return wishlistCounts.get(userId, loader);
+    }
+
+    /**
+     * Apply an add (+1) or remove (-1); users not in the cache are loaded on their next read
+     */
+    public void adjustWishlistCount(Long userId, int delta) {
+        wishlistCounts.asMap().computeIfPresent(userId, (id, count) -> Math.max(0, count + delta));
+    }
+
+    /**
+     * Drop both counts of these users, e.g. after a sweeper deleted some of their rows
+     */
+    public void invalidateUsers(Collection<Long> userIds) {
+        cartCounts.invalidateAll(userIds);
+        wishlistCounts.invalidateAll(userIds);
+    }
+
+    /**
+     * Drop every count, e.g. after games were deleted together with their cart and wishlist rows
+     */
+    public void invalidateAll() {
+        cartCounts.invalidateAll();
+        wishlistCounts.invalidateAll();
+    }
+}
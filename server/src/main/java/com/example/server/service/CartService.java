@@ -1,60 +1,105 @@
 package com.example.server.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.server.dto.CartOperationDto;
+import com.example.server.dto.CartSummaryDto;
 import com.example.server.exception.CartException;
 import com.example.server.exception.EntityNotFoundException;
 import com.example.server.model.CartItem;
-import com.example.server.model.Game;
-import com.example.server.repository.CartItemRepository;
-import com.example.server.repository.GameRepository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
 
 @Service
 public class CartService {
 
-    @Autowired
-    private CartItemRepository cartItemRepository;
+    // Upper bound on operations per POST /api/cart/batch request
+    public static final int MAX_BATCH_OPERATIONS = 100;
 
-    @Autowired
-    private GameRepository gameRepository;
+    private final CartStore cartStore; // database or write-behind, depending on cart.store
+    private final GameService gameService;
+    private final BadgeCounterCache badgeCounters;
+    private final MembershipCache membership;
+    private final PricingEngine pricing;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTransactionTemplate;
+
+    // Cart mutations of one user run one at a time in this process, so only
+    // writers in other instances can ever hit a version conflict
+    private final UserLockStripes locks;
+
+    // Attempts per mutation when another writer keeps winning (or the DB picks us as deadlock victim)
+    private final int maxAttempts;
+
+    private final AtomicLong conflictRetries = new AtomicLong();
+
+    public CartService(CartStore cartStore, GameService gameService, BadgeCounterCache badgeCounters,
+            MembershipCache membership, PricingEngine pricing, PlatformTransactionManager transactionManager,
+            @Value("${cart.lock-stripes:256}") int lockStripes,
+            @Value("${cart.max-attempts:5}") int maxAttempts) {
+        this.cartStore = cartStore;
+        this.gameService = gameService;
+        this.badgeCounters = badgeCounters;
+        this.membership = membership;
+        this.pricing = pricing;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransactionTemplate.setReadOnly(true);
+        this.locks = new UserLockStripes(lockStripes);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
 
     /**
      * Add a game to user's cart (supports "Add to Cart" button)
-     * 
+     *
+     * With the database store this is one upsert statement plus one read of
+     * the whole cart (and the version check); concurrent clicks serialize on
+     * the (user_id, game_id) unique key instead of racing to insert
+     * duplicate rows.
+     *
      * @param userId the logged-in user ID
      * @param gameId the game to add
-     * @return success message or cart item details
+     * @return the updated cart (use findItem(gameId) for the added line)
      */
-    public CartItem addToCart(Long userId, Long gameId) {
+    public CartSummaryDto addToCart(Long userId, Long gameId) {
         // Validate inputs
         if (userId == null || gameId == null) {
             throw new IllegalArgumentException("User ID and Game ID are required");
         }
 
-        // Check if game exists
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new EntityNotFoundException("Game not found with id: " + gameId));
-
-        // Check if game is already in cart
-        Optional<CartItem> existingItem = cartItemRepository.findByUserIdAndGameId(userId, gameId);
-
-        if (existingItem.isPresent()) {
-            // If already in cart, increase quantity by 1
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + 1);
-            return cartItemRepository.save(item);
-        } else {
-            // Create new cart item with quantity 1
-            CartItem newItem = new CartItem();
-            newItem.setUserId(userId);
-            newItem.setGame(game);
-            newItem.setQuantity(1);
-            return cartItemRepository.save(newItem);
-        }
+        return mutate(userId, () -> cartStore.increment(userId, gameId));
+    }
+
+    /**
+     * Get the user's cart items, item count and total from a single read
+     *
+     * @param userId the logged-in user ID
+     * @return cart items with count and total
+     */
+    public CartSummaryDto getCartSummary(Long userId) {
+        // One read-only transaction so the items match the version
+        return readTransactionTemplate.execute(status -> {
+            long version = cartStore.getVersion(userId);
+            return pricing.summarize(cartStore.getItems(userId), version);
+        });
     }
 
     /**
@@ -64,8 +109,18 @@ public class CartService {
      * @return total number of items in cart
      */
     public Integer getCartItemCount(Long userId) {
-        Integer count = cartItemRepository.getTotalItemsByUserId(userId);
-        return count != null ? count : 0;
+        // Loaded once per user, then kept current by every mutation
+        return badgeCounters.getCartCount(userId, cartStore::getCount);
+    }
+
+    /**
+     * Game IDs and quantities in the user's cart, for marking catalog cards
+     *
+     * @param userId the logged-in user ID
+     * @return the cart's games (do not modify)
+     */
+    public MembershipCache.CartMembership getCartMembership(Long userId) {
+        return membership.getCart(userId, id -> MembershipCache.CartMembership.of(cartStore.getItems(id)));
     }
 
     /**
@@ -75,7 +130,7 @@ public class CartService {
      * @return list of cart items
      */
     public List<CartItem> getCartItems(Long userId) {
-        return cartItemRepository.findByUserId(userId);
+        return cartStore.getItems(userId);
     }
 
     /**
@@ -83,9 +138,10 @@ public class CartService {
      * 
      * @param userId the logged-in user ID
      * @param gameId the game to remove
+     * @return the updated cart
      */
-    public void removeFromCart(Long userId, Long gameId) {
-        cartItemRepository.deleteByUserIdAndGameId(userId, gameId);
+    public CartSummaryDto removeFromCart(Long userId, Long gameId) {
+        return mutate(userId, () -> cartStore.remove(userId, gameId));
     }
 
     /**
@@ -93,26 +149,24 @@ public class CartService {
      * 
      * @param userId   the logged-in user ID
      * @param gameId   the game ID
-     * @param quantity new quantity
-     * @return updated cart item
+     * @param quantity new quantity (0 or less removes the item)
+     * @return the updated cart (use findItem(gameId) for the changed line)
      */
-    public CartItem updateQuantity(Long userId, Long gameId, Integer quantity) {
+    public CartSummaryDto updateQuantity(Long userId, Long gameId, Integer quantity) {
         // Validate inputs
         if (userId == null || gameId == null || quantity == null) {
             throw new IllegalArgumentException("User ID, Game ID, and quantity are required");
         }
 
         if (quantity <= 0) {
-            removeFromCart(userId, gameId);
-            return null;
+            return removeFromCart(userId, gameId);
         }
 
-        CartItem item = cartItemRepository.findByUserIdAndGameId(userId, gameId)
-                .orElseThrow(
-                        () -> new CartException("Item not found in cart for user " + userId + " and game " + gameId));
-
-        item.setQuantity(quantity);
-        return cartItemRepository.save(item);
+        return mutate(userId, () -> {
+            if (!cartStore.setQuantity(userId, gameId, quantity)) {
+                throw new CartException("Item not found in cart for user " + userId + " and game " + gameId);
+            }
+        });
     }
 
     /**
@@ -122,7 +176,195 @@ public class CartService {
      * @return total cart value
      */
     public Double getCartTotal(Long userId) {
-        Double total = cartItemRepository.getTotalCartValue(userId);
-        return total != null ? total : 0.0;
+        return getCartSummary(userId).getTotal();
+    }
+
+    /**
+     * Apply an ordered list of add / update / remove operations in one transaction
+     *
+     * Operations are first folded into one net change per game (e.g. remove
+     * then add 2 becomes "set to 2"), so the database sees at most one
+     * statement per line, sent as JDBC batches. Unknown games are rejected
+     * from the catalog snapshot before anything is written.
+     *
+     * @param userId     the logged-in user ID
+     * @param operations operations in the order the client made them
+     * @return the final cart
+     */
+    public CartSummaryDto applyBatch(Long userId, List<CartOperationDto> operations) {
+        if (userId == null || operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("User ID and at least one operation are required");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_OPERATIONS + " operations per batch");
+        }
+
+        Map<Long, CartStore.Change> changes = new LinkedHashMap<>();
+        for (CartOperationDto operation : operations) {
+            Long gameId = operation.getGameId();
+            String type = operation.getType() != null ? operation.getType().toLowerCase(Locale.ROOT) : "";
+            if (gameId == null) {
+                throw new IllegalArgumentException("Game ID is required for every operation");
+            }
+
+            switch (type) {
+                case "add" -> {
+                    int quantity = operation.getQuantity() != null ? operation.getQuantity() : 1;
+                    if (quantity < 1) {
+                        throw new IllegalArgumentException("Add quantity must be at least 1");
+                    }
+                    requireGame(gameId);
+                    // Adding on top of an earlier set keeps it absolute; otherwise the increments sum up
+                    changes.merge(gameId, new CartStore.Change(gameId, quantity, true),
+                            (previous, added) -> new CartStore.Change(gameId,
+                                    previous.quantity() + quantity, previous.increment()));
+                }
+                case "update" -> {
+                    if (operation.getQuantity() == null) {
+                        throw new IllegalArgumentException("Quantity is required for update");
+                    }
+                    int quantity = Math.max(operation.getQuantity(), 0);
+                    if (quantity > 0) {
+                        requireGame(gameId);
+                    }
+                    changes.put(gameId, new CartStore.Change(gameId, quantity, false));
+                }
+                case "remove" -> changes.put(gameId, new CartStore.Change(gameId, 0, false));
+                default -> throw new IllegalArgumentException("Unknown cart operation: " + operation.getType());
+            }
+        }
+
+        return mutate(userId, () -> cartStore.apply(userId, changes.values()));
+    }
+
+    /**
+     * Turn the whole cart into an order and empty it, as one versioned mutation
+     *
+     * Runs under the user's cart lock and in the same transaction as the
+     * cart clear, so the order and the empty cart commit (or roll back)
+     * together and an add racing the checkout lands either in the order or
+     * in the next cart, never in neither. With the write-behind store the
+     * cleared cart is persisted in that transaction too (CartStore.persist)
+     * instead of on a later flush, so a crash after the commit cannot bring
+     * the ordered lines back.
+     *
+     * @param userId     the logged-in user ID
+     * @param replay     returns the result of an earlier identical submission, or null
+     * @param placeOrder writes the order for the given cart lines; may be re-run on retry
+     * @return what replay or placeOrder returned
+     */
+    public <T> T checkout(Long userId, Supplier<T> replay, Function<List<CartItem>, T> placeOrder) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID is required");
+        }
+
+        AtomicReference<T> placed = new AtomicReference<>();
+        AtomicBoolean replayed = new AtomicBoolean();
+        // A replay leaves the cart as it is, so only a placed order publishes the empty cart
+        return versioned(userId, () -> {
+            T previous = replay.get();
+            replayed.set(previous != null);
+            if (previous != null) {
+                placed.set(previous);
+                return;
+            }
+            List<CartItem> items = cartStore.getItems(userId);
+            if (items.isEmpty()) {
+                throw new CartException("Your cart is empty");
+            }
+            placed.set(placeOrder.apply(items));
+            List<CartStore.Change> clear = new ArrayList<>(items.size());
+            for (CartItem item : items) {
+                clear.add(new CartStore.Change(item.getGame().getId(), 0, false));
+            }
+            cartStore.apply(userId, clear);
+            cartStore.persist(userId);
+        }, version -> placed.get(), value -> {
+            if (!replayed.get()) {
+                badgeCounters.setCartCount(userId, 0);
+                membership.setCart(userId, List.of());
+            }
+        });
+    }
+
+    // ==================== VERSIONED MUTATIONS ====================
+
+    /**
+     * Run one cart change as a versioned transaction and return the new cart.
+     *
+     * The version is read first and advanced last with a compare-and-set; if
+     * another writer advanced it in between, the whole transaction rolls back
+     * and is retried with a short randomized backoff. Deadlocks and lock wait
+     * timeouts are retried the same way. Within this process the user's
+     * stripe lock is held throughout, so retries only happen when another
+     * instance writes the same cart.
+     */
+    private CartSummaryDto mutate(Long userId, Runnable change) {
+        return versioned(userId, change,
+                version -> pricing.summarize(cartStore.getItems(userId), version),
+                cart -> {
+                    badgeCounters.setCartCount(userId, cart.getCount());
+                    membership.setCart(userId, cart.getItems());
+                });
+    }
+
+    /**
+     * The attempt loop behind mutate and checkout
+     *
+     * @param change applies the change; re-run on every attempt
+     * @param result builds the return value from the new version, after the compare-and-set
+     * @param publish updates the badge and membership caches once committed
+     */
+    private <T> T versioned(Long userId, Runnable change, LongFunction<T> result, Consumer<T> publish) {
+        ReentrantLock lock = locks.lockFor(userId);
+        lock.lock();
+        try {
+            for (int attempt = 1;; attempt++) {
+                try {
+                    T value = transactionTemplate.execute(status -> {
+                        long version = cartStore.getVersion(userId);
+                        change.run();
+                        if (!cartStore.advanceVersion(userId, version)) {
+                            throw new OptimisticLockingFailureException(
+                                    "Cart of user " + userId + " changed concurrently");
+                        }
+                        return result.apply(version + 1);
+                    });
+                    // Still under the user's lock, so cache updates land in mutation order
+                    publish.accept(value);
+                    return value;
+                } catch (ConcurrencyFailureException e) {
+                    if (attempt >= maxAttempts) {
+                        throw new CartException("Your cart is being changed elsewhere, please try again");
+                    }
+                    conflictRetries.incrementAndGet();
+                    backOff(attempt);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1L << Math.min(attempt, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CartException("Interrupted while retrying a cart update");
+        }
+    }
+
+    /**
+     * Number of mutations retried after a version conflict or deadlock since startup
+     */
+    public long getConflictRetries() {
+        return conflictRetries.get();
+    }
+
+    private void requireGame(Long gameId) {
+        if (gameService.getGameById(gameId) == null) {
+            throw new EntityNotFoundException("Game not found with id: " + gameId);
+        }
     }
 }
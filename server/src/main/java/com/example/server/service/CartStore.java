@@ -0,0 +1,83 @@
+package com.example.server.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.example.server.model.CartItem;
+
+/**
+ * Where cart lines live. CartService talks only to this interface; the
+ * implementation is picked with the cart.store property:
+ * "database" (default) writes every change straight to MySQL,
+ * "write-behind" keeps carts in memory and persists them in batches.
+ */
+public interface CartStore {
+
+    /**
+     * Net effect of a batch of cart operations on one line
+     *
+     * @param increment true to add quantity to the line (creating it if needed),
+     *                  false to set the line to quantity (0 removes it)
+     */
+    record Change(Long gameId, int quantity, boolean increment) {
+    }
+
+    /**
+     * All lines of a user's cart with their games, oldest first
+     */
+    List<CartItem> getItems(Long userId);
+
+    /**
+     * Total quantity across the user's cart
+     */
+    int getCount(Long userId);
+
+    /**
+     * Add one unit of a game, creating the line if needed
+     *
+     * @throws com.example.server.exception.EntityNotFoundException if the game does not exist
+     */
+    void increment(Long userId, Long gameId);
+
+    /**
+     * Set the quantity of an existing line
+     *
+     * @return false if the game is not in the cart
+     */
+    boolean setQuantity(Long userId, Long gameId, int quantity);
+
+    /**
+     * Remove a line (no-op if it is not in the cart)
+     */
+    void remove(Long userId, Long gameId);
+
+    /**
+     * Apply several line changes at once; games must already be validated
+     */
+    void apply(Long userId, Collection<Change> changes);
+
+    /**
+     * Current version of the user's cart (0 if it was never changed)
+     */
+    long getVersion(Long userId);
+
+    /**
+     * Advance the cart version from expected to expected + 1
+     *
+     * @return false if another writer advanced it first
+     */
+    boolean advanceVersion(Long userId, long expected);
+
+    /**
+     * Write the user's changes to the database as part of the caller's
+     * transaction, for changes that must commit together with other rows
+     * (checkout). A no-op for stores that write through anyway.
+     */
+    void persist(Long userId);
+
+    /**
+     * Forget any copy of these carts held outside the database, after their
+     * rows were deleted directly (e.g. by AbandonedCartSweeper)
+     */
+    void evict(Collection<Long> userIds);
+}
@@ -0,0 +1,93 @@
+package com.example.server.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import com.example.server.dto.AnnotatedGameDto;
+import com.example.server.dto.GamePageDto;
+import com.example.server.model.Game;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Marks catalog responses with the user's cart and wishlist state.
+ *
+ * The user's sets are read once per response from MembershipCache (no
+ * query once cached) and joined with the games in memory: a bitmap probe
+ * for the wishlist and a hash lookup for cart quantities. Anonymous
+ * requests never get here.
+ */
+@Component
+public class CatalogAnnotator {
+
+    // Query parameter that asks a catalog endpoint for the annotated variant: ?annotate=user
+    public static final String PARAM = "annotate";
+    private static final String PARAM_VALUE = "user";
+
+    private final CartService cartService;
+    private final WishlistService wishlistService;
+
+    public CatalogAnnotator(CartService cartService, WishlistService wishlistService) {
+        this.cartService = cartService;
+        this.wishlistService = wishlistService;
+    }
+
+    /**
+     * Whether the request asks for the user-annotated variant
+     */
+    public static boolean isRequested(HttpServletRequest request) {
+        return PARAM_VALUE.equals(request.getParameter(PARAM));
+    }
+
+    /**
+     * Annotate a catalog response body: full game lists become lists of
+     * AnnotatedGameDto and sparse pages get the flags added to each row.
+     * Other bodies are returned unchanged.
+     */
+    public Object annotate(Object body, Long userId) {
+        if (body instanceof GamePageDto page) {
+            return annotatePage(page, userId);
+        }
+        if (body instanceof List<?> list && (list.isEmpty() || list.get(0) instanceof Game)) {
+            @SuppressWarnings("unchecked")
+            List<Game> games = (List<Game>) list;
+            return annotateGames(games, userId);
+        }
+        return body;
+    }
+
+    public List<AnnotatedGameDto> annotateGames(List<Game> games, Long userId) {
+        MembershipCache.CartMembership cart = cartService.getCartMembership(userId);
+        RoaringBitmap wishlist = wishlistService.getWishlistGameIds(userId);
+
+        List<AnnotatedGameDto> result = new ArrayList<>(games.size());
+        for (Game game : games) {
+            int quantity = cart.quantity(game.getId());
+            result.add(new AnnotatedGameDto(game, quantity > 0, quantity,
+                    MembershipCache.contains(wishlist, game.getId())));
+        }
+        return result;
+    }
+
+    private GamePageDto annotatePage(GamePageDto page, Long userId) {
+        MembershipCache.CartMembership cart = cartService.getCartMembership(userId);
+        RoaringBitmap wishlist = wishlistService.getWishlistGameIds(userId);
+
+        List<Map<String, Object>> items = new ArrayList<>(page.getItems().size());
+        for (Map<String, Object> row : page.getItems()) {
+            Long gameId = (Long) row.get("id");
+            int quantity = cart.quantity(gameId);
+            Map<String, Object> annotated = new LinkedHashMap<>(row);
+            annotated.put("inCart", quantity > 0);
+            annotated.put("cartQuantity", quantity);
+            annotated.put("inWishlist", MembershipCache.contains(wishlist, gameId));
+            items.add(annotated);
+        }
+        return new GamePageDto(items, page.getNextCursor(), page.isHasMore());
+    }
+}
@@ -0,0 +1,394 @@
+package com.example.server.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.example.server.dto.GameFacetQueryDto;
+import com.example.server.dto.GameQueryResultDto;
+import com.example.server.model.Game;
+
+/**
+ * Bitset index over the catalog facets.
+ *
+ * Each distinct genre, platform and badge value has a compressed bitmap of the
+ * game IDs carrying it; ratings and prices are bucketed into fixed ranges with
+ * one bitmap per bucket. A query ORs the selected values inside a facet, ANDs
+ * the facets together, and computes facet counts the "disjunctive" way: each
+ * facet is counted against every filter except its own, so the client can
+ * show how many results selecting another value would give.
+ */
+public class CatalogFacetIndex {
+
+    // Half-star rating buckets: [0, 0.5), [0.5, 1.0) ... [4.5, 5.0]
+    private static final int RATING_BUCKETS = 10;
+
+    // Lower bounds of the price buckets; the first bucket is exactly free
+    private static final double[] PRICE_EDGES = { 0.0, 0.01, 10.0, 20.0, 40.0, 60.0 };
+    private static final String[] PRICE_LABELS = { "free", "under10", "10to20", "20to40", "40to60", "60plus" };
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap onSale = new RoaringBitmap();
+    private final Map<String, Facet> genres = new HashMap<>();
+    private final Map<String, Facet> platforms = new HashMap<>();
+    private final Map<String, Facet> badges = new HashMap<>();
+    private final RoaringBitmap[] ratingBuckets = newBitmaps(RATING_BUCKETS);
+    private final RoaringBitmap[] priceBuckets = newBitmaps(PRICE_EDGES.length);
+
+    public void rebuild(Collection<Game> games) {
+        lock.writeLock().lock();
+        try {
+            clearInternal();
+            games.forEach(this::addInternal);
+            runOptimize();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Collection<Game> games) {
+        lock.writeLock().lock();
+        try {
+            for (Game game : games) {
+                removeInternal(game.getId());
+                addInternal(game);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::removeInternal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearInternal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Run a facet query against the index
+     *
+     * @param query    selected facet values; empty facets do not filter
+     * @param catalog  snapshot used to resolve IDs and check values at bucket edges
+     * @param after    keyset cursor (game ID) from the previous page, or null;
+     *                 must not be negative
+     * @param limit    maximum number of games to return
+     */
+    public GameQueryResultDto query(GameFacetQueryDto query, CatalogSnapshot catalog, Long after, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap genreFilter = valueFilter(genres, query.getGenres());
+            RoaringBitmap platformFilter = valueFilter(platforms, query.getPlatforms());
+            RoaringBitmap badgeFilter = valueFilter(badges, query.getBadges());
+            RoaringBitmap ratingFilter = ratingFilter(query.getMinRating(), catalog);
+            RoaringBitmap priceFilter = priceFilter(query.getMinPrice(), query.getMaxPrice(), catalog);
+            RoaringBitmap saleFilter = Boolean.TRUE.equals(query.getOnSale()) ? onSale : null;
+
+            RoaringBitmap matches = and(all, genreFilter, platformFilter, badgeFilter, ratingFilter, priceFilter,
+                    saleFilter);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put("genre", valueCounts(genres,
+                    and(all, platformFilter, badgeFilter, ratingFilter, priceFilter, saleFilter)));
+            facets.put("platform", valueCounts(platforms,
+                    and(all, genreFilter, badgeFilter, ratingFilter, priceFilter, saleFilter)));
+            facets.put("badge", valueCounts(badges,
+                    and(all, genreFilter, platformFilter, ratingFilter, priceFilter, saleFilter)));
+            facets.put("rating", ratingCounts(
+                    and(all, genreFilter, platformFilter, badgeFilter, priceFilter, saleFilter)));
+            facets.put("price", priceCounts(
+                    and(all, genreFilter, platformFilter, badgeFilter, ratingFilter, saleFilter)));
+            facets.put("onSale", Map.of("true", RoaringBitmap.andCardinality(onSale,
+                    and(all, genreFilter, platformFilter, badgeFilter, ratingFilter, priceFilter))));
+
+            // Bitmaps iterate in ascending ID order, which is exactly the keyset order
+            List<Game> items = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+            PeekableIntIterator ids = matches.getIntIterator();
+            // Game IDs are indexed as non-negative ints, so nothing follows a cursor at Integer.MAX_VALUE
+            boolean exhausted = after != null && after >= Integer.MAX_VALUE;
+            if (after != null && !exhausted) {
+                ids.advanceIfNeeded(toDocId(after + 1));
+            }
+            while (!exhausted && ids.hasNext() && items.size() < limit) {
+                Game game = catalog.getGame((long) ids.next());
+                if (game != null) {
+                    items.add(game);
+                }
+            }
+            boolean hasMore = !exhausted && ids.hasNext();
+            Long nextCursor = hasMore && !items.isEmpty() ? items.get(items.size() - 1).getId() : null;
+
+            return new GameQueryResultDto(items, matches.getCardinality(), nextCursor, hasMore, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== FILTERS ====================
+
+    private static RoaringBitmap valueFilter(Map<String, Facet> facet, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap union = new RoaringBitmap();
+        for (String value : values) {
+            Facet entry = facet.get(key(value));
+            if (entry != null) {
+                union.or(entry.games);
+            }
+        }
+        return union;
+    }
+
+    private RoaringBitmap ratingFilter(Double minRating, CatalogSnapshot catalog) {
+        if (minRating == null) {
+            return null;
+        }
+        // Whole buckets above the threshold match; the bucket containing it is checked game by game
+        int edge = ratingBucket(minRating);
+        RoaringBitmap result = new RoaringBitmap();
+        for (int bucket = edge + 1; bucket < RATING_BUCKETS; bucket++) {
+            result.or(ratingBuckets[bucket]);
+        }
+        addMatching(result, ratingBuckets[edge], catalog,
+                game -> game.getRating() != null && game.getRating() >= minRating);
+        return result;
+    }
+
+    private RoaringBitmap priceFilter(Double minPrice, Double maxPrice, CatalogSnapshot catalog) {
+        if (minPrice == null && maxPrice == null) {
+            return null;
+        }
+        double min = minPrice != null ? minPrice : 0.0;
+        double max = maxPrice != null ? maxPrice : Double.MAX_VALUE;
+        RoaringBitmap result = new RoaringBitmap();
+        for (int bucket = 0; bucket < PRICE_EDGES.length; bucket++) {
+            double low = PRICE_EDGES[bucket];
+            double high = bucket + 1 < PRICE_EDGES.length ? PRICE_EDGES[bucket + 1] : Double.MAX_VALUE;
+            if (high <= min || low > max) {
+                continue;
+            }
+            if (low >= min && high <= max) {
+                result.or(priceBuckets[bucket]);
+            } else {
+                addMatching(result, priceBuckets[bucket], catalog, game -> {
+                    Double price = game.getCurrentPrice();
+                    return price != null && price >= min && price <= max;
+                });
+            }
+        }
+        return result;
+    }
+
+    private static void addMatching(RoaringBitmap target, RoaringBitmap bucket, CatalogSnapshot catalog,
+            Predicate<Game> test) {
+        IntIterator ids = bucket.getIntIterator();
+        while (ids.hasNext()) {
+            int id = ids.next();
+            Game game = catalog.getGame((long) id);
+            if (game != null && test.test(game)) {
+                target.add(id);
+            }
+        }
+    }
+
+    private static RoaringBitmap and(RoaringBitmap base, RoaringBitmap... filters) {
+        RoaringBitmap result = base;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    // ==================== COUNTS ====================
+
+    private static Map<String, Integer> valueCounts(Map<String, Facet> facet, RoaringBitmap base) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Facet entry : facet.values()) {
+            int count = RoaringBitmap.andCardinality(entry.games, base);
+            if (count > 0) {
+                counts.put(entry.label, count);
+            }
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> ratingCounts(RoaringBitmap base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int bucket = RATING_BUCKETS - 1; bucket >= 0; bucket--) {
+            int count = RoaringBitmap.andCardinality(ratingBuckets[bucket], base);
+            if (count > 0) {
+                counts.put(ratingLabel(bucket / 2.0), count);
+            }
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> priceCounts(RoaringBitmap base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < PRICE_EDGES.length; bucket++) {
+            int count = RoaringBitmap.andCardinality(priceBuckets[bucket], base);
+            if (count > 0) {
+                counts.put(PRICE_LABELS[bucket], count);
+            }
+        }
+        return counts;
+    }
+
+    // ==================== INDEX MAINTENANCE ====================
+
+    private void addInternal(Game game) {
+        int id = toDocId(game.getId());
+        all.add(id);
+        addValue(genres, game.getGenre(), id);
+        addValue(platforms, game.getPlatform(), id);
+        addValue(badges, game.getBadge(), id);
+        if (game.getRating() != null) {
+            ratingBuckets[ratingBucket(game.getRating())].add(id);
+        }
+        Double price = game.getCurrentPrice();
+        if (price != null) {
+            priceBuckets[priceBucket(price)].add(id);
+        }
+        if (Boolean.TRUE.equals(game.isOnSale())) {
+            onSale.add(id);
+        }
+    }
+
+    private void removeInternal(Long gameId) {
+        int id = toDocId(gameId);
+        if (!all.contains(id)) {
+            return;
+        }
+        all.remove(id);
+        onSale.remove(id);
+        removeValue(genres, id);
+        removeValue(platforms, id);
+        removeValue(badges, id);
+        for (RoaringBitmap bucket : ratingBuckets) {
+            bucket.remove(id);
+        }
+        for (RoaringBitmap bucket : priceBuckets) {
+            bucket.remove(id);
+        }
+    }
+
+    private static void addValue(Map<String, Facet> facet, String value, int id) {
+        if (value != null && !value.isBlank()) {
+            facet.computeIfAbsent(key(value), k -> new Facet(value.trim())).games.add(id);
+        }
+    }
+
+    private static void removeValue(Map<String, Facet> facet, int id) {
+        facet.values().removeIf(entry -> {
+            entry.games.remove(id);
+            return entry.games.isEmpty();
+        });
+    }
+
+    private void clearInternal() {
+        all.clear();
+        onSale.clear();
+        genres.clear();
+        platforms.clear();
+        badges.clear();
+        for (RoaringBitmap bucket : ratingBuckets) {
+            bucket.clear();
+        }
+        for (RoaringBitmap bucket : priceBuckets) {
+            bucket.clear();
+        }
+    }
+
+    // Switch dense containers to run-length encoding after a bulk load
+    private void runOptimize() {
+        all.runOptimize();
+        onSale.runOptimize();
+        genres.values().forEach(entry -> entry.games.runOptimize());
+        platforms.values().forEach(entry -> entry.games.runOptimize());
+        badges.values().forEach(entry -> entry.games.runOptimize());
+        for (RoaringBitmap bucket : ratingBuckets) {
+            bucket.runOptimize();
+        }
+        for (RoaringBitmap bucket : priceBuckets) {
+            bucket.runOptimize();
+        }
+    }
+
+    private static int ratingBucket(double rating) {
+        return Math.max(0, Math.min(RATING_BUCKETS - 1, (int) Math.floor(rating * 2)));
+    }
+
+    private static int priceBucket(double price) {
+        for (int bucket = PRICE_EDGES.length - 1; bucket > 0; bucket--) {
+            if (price >= PRICE_EDGES[bucket]) {
+                return bucket;
+            }
+        }
+        return 0;
+    }
+
+    // Facet values a rating or price is counted under (package-private for tests)
+    static String ratingLabel(double rating) {
+        return String.valueOf(ratingBucket(rating) / 2.0);
+    }
+
+    static String priceLabel(double price) {
+        return PRICE_LABELS[priceBucket(price)];
+    }
+
+    private static int toDocId(Long gameId) {
+        return Math.toIntExact(gameId);
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static RoaringBitmap[] newBitmaps(int count) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+
+    /**
+     * Games sharing one facet value, labelled with the first spelling seen
+     */
+    private static final class Facet {
+        private final String label;
+        private final RoaringBitmap games = new RoaringBitmap();
+
+        Facet(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.server.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialized response bodies for the hottest catalog reads.
+ *
+ * Each entry holds the JSON bytes and a gzip copy, built once per catalog
+ * version and request (path + query string). Controllers write the stored
+ * bytes as-is, so a hit costs no serialization and no compression. Entries
+ * are tied to the catalog version: the first lookup after a catalog write
+ * drops the whole cache.
+ */
+@Component
+public class CatalogResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final GameService gameService;
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private volatile long cachedVersion;
+
+    // Caps the cache when clients vary query parameters (paging cursors)
+    @Value("${catalog.response-cache.max-entries:512}")
+    private int maxEntries;
+
+    public CatalogResponseCache(ObjectMapper objectMapper, GameService gameService) {
+        this.objectMapper = objectMapper;
+        this.gameService = gameService;
+    }
+
+    /**
+     * Serialized response for one catalog read
+     *
+     * @param json  JSON body
+     * @param gzip  gzip-compressed JSON body
+     * @param etag  strong ETag of the identity (uncompressed) representation
+     */
+    public record CachedResponse(long version, byte[] json, byte[] gzip, String etag) {
+
+        // Strong ETags must differ between content codings
+        public String gzipETag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+
+    /**
+     * Get the cached response for a key, serializing the body on a miss
+     *
+     * @param key  request path and query string
+     * @param body produces the response object when the entry is missing or stale
+     */
+    public CachedResponse get(String key, Supplier<Object> body) {
+        long version = gameService.getCatalogVersion();
+        if (version > cachedVersion) {
+            entries.clear();
+            cachedVersion = version;
+        }
+
+        CachedResponse cached = entries.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+
+        // Tag the body with the version read before building it. GameService bumps
+        // the version only after publishing the new snapshot, so the body is at
+        // least as new as its tag; if a write lands meanwhile, the next lookup
+        // sees a newer version and replaces the entry
+        String etag = gameService.getCatalogETag(version);
+        byte[] json = serialize(body.get());
+        cached = new CachedResponse(version, json, gzip(json), etag);
+        // A request that read the version just before a write must not
+        // overwrite entries already built for the newer version
+        if (version == cachedVersion && (entries.size() < maxEntries || entries.containsKey(key))) {
+            entries.put(key, cached);
+        }
+        return cached;
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
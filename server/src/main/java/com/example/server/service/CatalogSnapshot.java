@@ -0,0 +1,169 @@
+package com.example.server.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.server.model.Game;
+
+/**
+ * Immutable in-memory view of the whole game catalog.
+ * GameService builds a new snapshot on every catalog write and swaps it in
+ * atomically, so readers always see a consistent catalog without touching the
+ * database.
+ */
+public final class CatalogSnapshot {
+
+    private static final CatalogSnapshot EMPTY = new CatalogSnapshot(List.of());
+
+    private final List<Game> games; // sorted by id
+    private final Map<Long, Game> byId;
+    private final Map<String, List<Game>> byGenre;
+    private final Map<String, List<Game>> byPlatform;
+    private final Map<String, List<Game>> byBadge;
+    private final List<Game> onSale;
+
+    private CatalogSnapshot(List<Game> sortedGames) {
+        Map<Long, Game> ids = new HashMap<>();
+        Map<String, List<Game>> genres = new HashMap<>();
+        Map<String, List<Game>> platforms = new HashMap<>();
+        Map<String, List<Game>> badges = new HashMap<>();
+        List<Game> sale = new ArrayList<>();
+
+        for (Game game : sortedGames) {
+            ids.put(game.getId(), game);
+            addToIndex(genres, game.getGenre(), game);
+            addToIndex(platforms, game.getPlatform(), game);
+            addToIndex(badges, game.getBadge(), game);
+            if (Boolean.TRUE.equals(game.isOnSale())) {
+                sale.add(game);
+            }
+        }
+
+        this.games = Collections.unmodifiableList(sortedGames);
+        this.byId = Collections.unmodifiableMap(ids);
+        this.byGenre = freeze(genres);
+        this.byPlatform = freeze(platforms);
+        this.byBadge = freeze(badges);
+        this.onSale = Collections.unmodifiableList(sale);
+    }
+
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a snapshot from freshly loaded entities (they are copied, not shared)
+     */
+    public static CatalogSnapshot of(Collection<Game> games) {
+        List<Game> copies = new ArrayList<>(games.size());
+        for (Game game : games) {
+            copies.add(copyOf(game));
+        }
+        copies.sort(Comparator.comparing(Game::getId));
+        return new CatalogSnapshot(copies);
+    }
+
+    /**
+     * Return a new snapshot with the given games added or replaced
+     */
+    public CatalogSnapshot withGames(Collection<Game> upserts) {
+        if (upserts.isEmpty()) {
+            return this;
+        }
+        Map<Long, Game> merged = new HashMap<>(byId);
+        for (Game game : upserts) {
+            merged.put(game.getId(), copyOf(game));
+        }
+        List<Game> sorted = new ArrayList<>(merged.values());
+        sorted.sort(Comparator.comparing(Game::getId));
+        return new CatalogSnapshot(sorted);
+    }
+
+    /**
+     * Return a new snapshot without the given game IDs
+     */
+    public CatalogSnapshot withoutGames(Collection<Long> ids) {
+        Set<Long> removed = Set.copyOf(ids);
+        List<Game> remaining = new ArrayList<>(games.size());
+        for (Game game : games) {
+            if (!removed.contains(game.getId())) {
+                remaining.add(game);
+            }
+        }
+        return remaining.size() == games.size() ? this : new CatalogSnapshot(remaining);
+    }
+
+    // ==================== READS ====================
+
+    public List<Game> getGames() {
+        return games;
+    }
+
+    public Game getGame(Long id) {
+        return id != null ? byId.get(id) : null;
+    }
+
+    public int size() {
+        return games.size();
+    }
+
+    public List<Game> getGamesByGenre(String genre) {
+        return lookup(byGenre, genre);
+    }
+
+    public List<Game> getGamesByPlatform(String platform) {
+        return lookup(byPlatform, platform);
+    }
+
+    public List<Game> getGamesByBadge(String badge) {
+        return lookup(byBadge, badge);
+    }
+
+    public List<Game> getGamesOnSale() {
+        return onSale;
+    }
+
+    public List<Game> getGamesByRating(Double minRating) {
+        if (minRating == null) {
+            return List.of();
+        }
+        return games.stream()
+                .filter(game -> game.getRating() != null && game.getRating() >= minRating)
+                .toList();
+    }
+
+    // ==================== HELPERS ====================
+
+    private static void addToIndex(Map<String, List<Game>> index, String key, Game game) {
+        if (key != null) {
+            index.computeIfAbsent(key.toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(game);
+        }
+    }
+
+    private static Map<String, List<Game>> freeze(Map<String, List<Game>> index) {
+        index.replaceAll((key, list) -> Collections.unmodifiableList(list));
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static List<Game> lookup(Map<String, List<Game>> index, String key) {
+        if (key == null) {
+            return List.of();
+        }
+        return index.getOrDefault(key.toLowerCase(Locale.ROOT), List.of());
+    }
+
+    // Detached copy so later changes to managed entities never leak into a published snapshot
+    private static Game copyOf(Game game) {
+        return new Game(game.getId(), game.getTitle(), game.getGenre(), game.getPlatform(),
+                game.getOriginalPrice(), game.getDiscountPrice(), game.getDiscountPercentage(),
+                game.getRating(), game.getImage(), game.getBadge(), game.getCurrentPrice(),
+                game.getOnSale());
+    }
+}
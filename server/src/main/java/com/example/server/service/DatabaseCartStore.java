@@ -0,0 +1,149 @@
+package com.example.server.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.server.exception.EntityNotFoundException;
+import com.example.server.model.CartItem;
+import com.example.server.repository.CartItemRepository;
+import com.example.server.repository.CartVersionRepository;
+
+/**
+ * Default cart store: every change is a synchronous statement against cart_items
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "database", matchIfMissing = true)
+public class DatabaseCartStore implements CartStore {
+
+    // Both upserts refresh updated_at, which AbandonedCartSweeper treats as the cart's last activity
+    private static final String INCREMENT_SQL = "INSERT INTO cart_items (user_id, game_id, quantity, added_at, "
+            + "updated_at) VALUES (?, ?, ?, NOW(), NOW()) "
+            + "ON DUPLICATE KEY UPDATE quantity = quantity + ?, updated_at = NOW()";
+
+    private static final String SET_SQL = "INSERT INTO cart_items (user_id, game_id, quantity, added_at, updated_at) "
+            + "VALUES (?, ?, ?, NOW(), NOW()) ON DUPLICATE KEY UPDATE quantity = ?, updated_at = NOW()";
+
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE user_id = ? AND game_id = ?";
+
+    private final CartItemRepository cartItemRepository;
+    private final CartVersionRepository cartVersionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${cart.batch.jdbc-batch-size:100}")
+    private int batchSize;
+
+    public DatabaseCartStore(CartItemRepository cartItemRepository, CartVersionRepository cartVersionRepository,
+            JdbcTemplate jdbcTemplate) {
+        this.cartItemRepository = cartItemRepository;
+        this.cartVersionRepository = cartVersionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<CartItem> getItems(Long userId) {
+        return cartItemRepository.findCartWithGames(userId);
+    }
+
+    @Override
+    public int getCount(Long userId) {
+        Integer count = cartItemRepository.getTotalItemsByUserId(userId);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public void increment(Long userId, Long gameId) {
+        try {
+            cartItemRepository.upsertIncrement(userId, gameId);
+        } catch (DataIntegrityViolationException e) {
+            // The only constraint the upsert can break is the game_id foreign key
+            throw new EntityNotFoundException("Game not found with id: " + gameId);
+        }
+    }
+
+    @Override
+    public boolean setQuantity(Long userId, Long gameId, int quantity) {
+        return cartItemRepository.updateQuantity(userId, gameId, quantity) > 0;
+    }
+
+    @Override
+    public void remove(Long userId, Long gameId) {
+        cartItemRepository.deleteByUserIdAndGameId(userId, gameId);
+    }
+
+    /**
+     * One JDBC batch per statement kind; runs in the caller's transaction
+     */
+    @Override
+    public void apply(Long userId, Collection<Change> changes) {
+        List<Change> increments = new ArrayList<>();
+        List<Change> sets = new ArrayList<>();
+        List<Change> deletes = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.increment()) {
+                increments.add(change);
+            } else if (change.quantity() > 0) {
+                sets.add(change);
+            } else {
+                deletes.add(change);
+            }
+        }
+
+        try {
+            writeBatch(INCREMENT_SQL, userId, increments, true);
+            writeBatch(SET_SQL, userId, sets, true);
+            writeBatch(DELETE_SQL, userId, deletes, false);
+        } catch (DataIntegrityViolationException e) {
+            // Games were validated up front, so only a concurrent delete gets here
+            throw new EntityNotFoundException("A game in this cart update no longer exists");
+        }
+    }
+
+    @Override
+    public long getVersion(Long userId) {
+        return cartVersionRepository.findVersion(userId).orElse(0L);
+    }
+
+    @Override
+    public boolean advanceVersion(Long userId, long expected) {
+        if (expected > 0) {
+            return cartVersionRepository.advance(userId, expected) > 0;
+        }
+        try {
+            return cartVersionRepository.create(userId) > 0;
+        } catch (DataIntegrityViolationException e) {
+            // Another writer made this cart's first change at the same time
+            return false;
+        }
+    }
+
+    @Override
+    public void persist(Long userId) {
+        // Every change was already written in the caller's transaction
+    }
+
+    @Override
+    public void evict(Collection<Long> userIds) {
+        // Nothing cached: every read goes to cart_items
+    }
+
+    private void writeBatch(String sql, Long userId, List<Change> changes, boolean withQuantity) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, changes, batchSize, (ps, change) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, change.gameId());
+            if (withQuantity) {
+                ps.setInt(3, change.quantity());
+                ps.setInt(4, change.quantity());
+            }
+        });
+    }
+}
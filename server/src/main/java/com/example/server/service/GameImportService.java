@@ -0,0 +1,281 @@
+package com.example.server.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.server.dto.GameImportResultDto;
+import com.example.server.model.Game;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Streaming catalog import for large publisher feeds.
+ *
+ * The body is read line by line (NDJSON or CSV with a header row); each row is
+ * validated and priced on its own, and valid rows are written with plain JDBC
+ * batches. Game ids are IDENTITY-generated, so Hibernate cannot batch these
+ * inserts; going through JdbcTemplate lets the driver send one batch per
+ * statement group instead of one round trip per row. Rows are committed in
+ * fixed-size chunks, so memory use depends on the chunk size and not on the
+ * size of the feed.
+ *
+ * Importing overwrites the catalog, so it is off unless catalog.import.token
+ * is configured, and every request must present that token.
+ */
+@Service
+public class GameImportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO games "
+            + "(title, genre, platform, original_price, discount_price, discount_percentage, rating, image_url, badge, "
+            + "current_price, is_on_sale) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final GameService gameService;
+
+    @Value("${catalog.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${catalog.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${catalog.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    @Value("${catalog.import.token:}")
+    private String importToken;
+
+    public GameImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, Validator validator, GameService gameService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.gameService = gameService;
+    }
+
+    /**
+     * Whether imports are enabled (an import token is configured)
+     */
+    public boolean isEnabled() {
+        return importToken != null && !importToken.isBlank();
+    }
+
+    /**
+     * Check a caller-supplied token against the configured one in constant time
+     */
+    public boolean isAuthorized(String token) {
+        return isEnabled() && token != null && MessageDigest.isEqual(
+                importToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Import games from a stream, reporting per-row errors instead of failing the whole feed
+     *
+     * @param input  request body
+     * @param format NDJSON (one Game object per line) or CSV (header row of Game property names)
+     * @return counts of processed, imported and failed rows plus the first row errors
+     */
+    public GameImportResultDto importGames(InputStream input, Format format) throws IOException {
+        GameImportResultDto result = new GameImportResultDto();
+        List<Game> chunk = new ArrayList<>(chunkSize);
+        long chunkStartLine = 1;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String[] csvHeader = null;
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && csvHeader == null) {
+                    csvHeader = parseCsvLine(line).toArray(new String[0]);
+                    continue;
+                }
+
+                result.setProcessed(result.getProcessed() + 1);
+                try {
+                    Game game = format == Format.CSV ? parseCsvRow(line, csvHeader) : parseJsonRow(line);
+                    validate(game);
+                    gameService.applyPricing(game);
+                    if (chunk.isEmpty()) {
+                        chunkStartLine = lineNumber;
+                    }
+                    chunk.add(game);
+                } catch (IllegalArgumentException | IOException e) {
+                    result.setFailed(result.getFailed() + 1);
+                    recordError(result, lineNumber, e.getMessage());
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, chunkStartLine, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, chunkStartLine, result);
+            }
+        } finally {
+            // Rows were written behind GameService's back; rebuild the snapshot on next read
+            if (result.getImported() > 0) {
+                gameService.invalidateCatalog();
+            }
+        }
+
+        System.out.println("Import finished - processed: " + result.getProcessed() + ", imported: "
+                + result.getImported() + ", failed: " + result.getFailed());
+        return result;
+    }
+
+    // ==================== WRITING ====================
+
+    /**
+     * Insert one chunk in its own transaction, in JDBC batches of batchSize rows
+     */
+    private void writeChunk(List<Game> chunk, long startLine, GameImportResultDto result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, chunk,
+                    batchSize, this::bindGame));
+            result.setImported(result.getImported() + chunk.size());
+            System.out.println("Import progress - " + result.getProcessed() + " rows processed, "
+                    + result.getImported() + " imported");
+        } catch (RuntimeException e) {
+            // The whole chunk rolled back, so every row in it counts as failed
+            result.setFailed(result.getFailed() + chunk.size());
+            recordError(result, startLine, "Chunk of " + chunk.size() + " rows starting here was rolled back: "
+                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    private void bindGame(PreparedStatement ps, Game game) throws SQLException {
+        ps.setString(1, game.getTitle());
+        ps.setString(2, game.getGenre());
+        ps.setString(3, game.getPlatform());
+        ps.setDouble(4, game.getOriginalPrice());
+        setNullableDouble(ps, 5, game.getDiscountPrice());
+        if (game.getDiscountPercentage() != null) {
+            ps.setInt(6, game.getDiscountPercentage());
+        } else {
+            ps.setNull(6, Types.INTEGER);
+        }
+        setNullableDouble(ps, 7, game.getRating());
+        ps.setString(8, game.getImage());
+        ps.setString(9, game.getBadge());
+        ps.setDouble(10, game.getCurrentPrice());
+        ps.setBoolean(11, Boolean.TRUE.equals(game.getOnSale()));
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+
+    // ==================== PARSING & VALIDATION ====================
+
+    private Game parseJsonRow(String line) throws IOException {
+        Game game = objectMapper.readValue(line, Game.class);
+        game.setId(null); // ids are always generated by the database
+        return game;
+    }
+
+    private Game parseCsvRow(String line, String[] header) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() != header.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + header.length + " columns but found " + values.size());
+        }
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String value = values.get(i).trim();
+            row.put(header[i].trim(), value.isEmpty() ? null : value);
+        }
+        Game game = objectMapper.convertValue(row, Game.class);
+        game.setId(null);
+        return game;
+    }
+
+    private void validate(Game game) {
+        Set<ConstraintViolation<Game>> violations = validator.validate(game);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private void recordError(GameImportResultDto result, long line, String message) {
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new GameImportResultDto.RowError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    /**
+     * Split one CSV line, honouring double-quoted fields and "" escapes
+     * (quoted fields may not span lines)
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
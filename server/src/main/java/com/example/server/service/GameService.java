@@ -1,19 +1,88 @@
 package com.example.server.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.server.dto.GameFacetQueryDto;
+import com.example.server.dto.GameFilterDto;
+import com.example.server.dto.GamePageDto;
+import com.example.server.dto.GameQueryResultDto;
+import com.example.server.dto.StorefrontDto;
 import com.example.server.model.Game;
+import com.example.server.repository.CartItemRepository;
 import com.example.server.repository.GameRepository;
+import com.example.server.repository.GameRepositoryImpl;
+import com.example.server.repository.WishlistItemRepository;
+import com.example.server.util.Cents;
 
 @Service
 public class GameService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+
     private final GameRepository gameRepository;
+    private final CartItemRepository cartItemRepository;
+    private final WishlistItemRepository wishlistItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BadgeCounterCache badgeCounters;
+    private final MembershipCache membership;
+    private final WishlistReverseIndex wishlistIndex;
+    private final PriceDropNotifier priceDrops;
+
+    // Games deleted per statement (and per transaction) by the bulk deletes
+    @Value("${catalog.delete.chunk-size:1000}")
+    private int deleteChunkSize;
+
+    // Current catalog snapshot; null until the first read loads it
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
+    // Trigram index over titles, maintained alongside the snapshot
+    private final TitleSearchIndex titleIndex = new TitleSearchIndex();
+
+    // Facet bitmaps for /api/games/query, maintained alongside the snapshot
+    private final CatalogFacetIndex facetIndex = new CatalogFacetIndex();
+
+    // Serializes catalog writes (and the initial load) so snapshot swaps never race
+    private final Object catalogWriteLock = new Object();
+
+    // Catalog version, bumped by every write. The epoch keeps ETags from
+    // different server runs distinct even though the counter restarts.
+    private final long catalogEpoch = System.currentTimeMillis();
+    private final AtomicLong catalogVersion = new AtomicLong(1);
+    private volatile long catalogLastModified = catalogEpoch;
 
-    public GameService(GameRepository gameRepository) {
+    // Storefront shelves and the snapshot they were built from
+    private volatile CachedStorefront storefront;
+
+    private record CachedStorefront(CatalogSnapshot source, StorefrontDto shelves) {
+    }
+
+    public GameService(GameRepository gameRepository, CartItemRepository cartItemRepository,
+            WishlistItemRepository wishlistItemRepository, PlatformTransactionManager transactionManager,
+            BadgeCounterCache badgeCounters, MembershipCache membership, WishlistReverseIndex wishlistIndex,
+            PriceDropNotifier priceDrops) {
         this.gameRepository = gameRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.wishlistItemRepository = wishlistItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.badgeCounters = badgeCounters;
+        this.membership = membership;
+        this.wishlistIndex = wishlistIndex;
+        this.priceDrops = priceDrops;
     }
 
     // Service methods will be implemented here
@@ -21,37 +90,157 @@ public class GameService {
     // etc.
 
     public List<Game> getAllGames() {
-        return gameRepository.findAll();
+        return getSnapshot().getGames();
     }
 
     public Game addGame(Game game) {
-        calculateDiscountPercentage(game);
-        return gameRepository.save(game);
+        applyPricing(game);
+        synchronized (catalogWriteLock) {
+            Game saved = gameRepository.save(game);
+            publishUpserts(List.of(saved));
+            return saved;
+        }
     }
 
     public List<Game> addMultipleGames(List<Game> games) {
-        games.forEach(this::calculateDiscountPercentage);
-        return gameRepository.saveAll(games);
+        games.forEach(this::applyPricing);
+        synchronized (catalogWriteLock) {
+            List<Game> saved = gameRepository.saveAll(games);
+            publishUpserts(saved);
+            return saved;
+        }
+    }
+
+    // ==================== CATALOG SNAPSHOT ====================
+
+    /**
+     * Get the current catalog snapshot, loading it from the database on first use
+     */
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (catalogWriteLock) {
+            current = snapshot.get();
+            if (current == null) {
+                current = CatalogSnapshot.of(gameRepository.findAll());
+                titleIndex.rebuild(current.getGames());
+                facetIndex.rebuild(current.getGames());
+                snapshot.set(current);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Drop the snapshot after rows were written outside this service (bulk
+     * import); the next read reloads it and rebuilds the indexes.
+     */
+    public void invalidateCatalog() {
+        synchronized (catalogWriteLock) {
+            snapshot.set(null);
+            bumpCatalogVersion();
+        }
+    }
+
+    // ==================== CATALOG VERSION ====================
+
+    /**
+     * Monotonically increasing catalog version, bumped by every catalog write
+     */
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * Strong ETag for the current catalog version
+     */
+    public String getCatalogETag() {
+        return getCatalogETag(catalogVersion.get());
+    }
+
+    /**
+     * Strong ETag for a catalog version read earlier with getCatalogVersion()
+     */
+    public String getCatalogETag(long version) {
+        return "\"" + Long.toString(catalogEpoch, 36) + "-" + version + "\"";
+    }
+
+    /**
+     * Time of the last catalog write (server start if nothing changed since)
+     */
+    public long getCatalogLastModified() {
+        return catalogLastModified;
+    }
+
+    // Callers must hold catalogWriteLock and call this after the new snapshot
+    // is published. Readers take the version before the snapshot, so a reader
+    // that sees the new version always sees the new data too; the reverse
+    // (new data under the old version) only costs one extra cache miss.
+    private void bumpCatalogVersion() {
+        catalogLastModified = System.currentTimeMillis();
+        catalogVersion.incrementAndGet();
+    }
+
+    // Callers must hold catalogWriteLock. If nothing has been loaded yet the
+    // next read picks the change up from the database.
+    private void publishUpserts(List<Game> games) {
+        CatalogSnapshot current = snapshot.get();
+        if (current != null) {
+            titleIndex.upsert(games);
+            facetIndex.upsert(games);
+            snapshot.set(current.withGames(games));
+        }
+        bumpCatalogVersion();
+    }
+
+    private void publishRemovals(List<Long> gameIds) {
+        CatalogSnapshot current = snapshot.get();
+        if (current != null) {
+            titleIndex.remove(gameIds);
+            facetIndex.remove(gameIds);
+            snapshot.set(current.withoutGames(gameIds));
+        }
+        bumpCatalogVersion();
+    }
+
+    // Shared helper (also used by GameImportService): derive every computed price column
+    void applyPricing(Game game) {
+        calculateDiscountPercentage(game);
+        game.refreshDerivedPricing();
     }
 
     // Private helper method to eliminate code duplication
     private void calculateDiscountPercentage(Game game) {
         if (game.getOriginalPrice() != null && game.getDiscountPrice() != null) {
-            // Validate business rules
-            if (game.getDiscountPrice() > game.getOriginalPrice()) {
-                throw new IllegalArgumentException("Discount price cannot be higher than original price");
-            }
-
-            double percentage = ((game.getOriginalPrice() - game.getDiscountPrice()) / game.getOriginalPrice()) * 100;
-            game.setDiscountPercentage((int) Math.round(percentage));
+            // Compared and divided in whole cents, so float noise cannot tip the rounding
+            game.setDiscountPercentage(Cents.discountPercentage(
+                    Cents.toCents(game.getOriginalPrice()), Cents.toCents(game.getDiscountPrice())));
         }
     }
 
     public Game getGameById(Long id) {
-        return gameRepository.findById(id).orElse(null);
+        return getSnapshot().getGame(id);
     }
 
     public Game updateGame(Long id, Game updatedGame) {
+        synchronized (catalogWriteLock) {
+            Game before = getSnapshot().getGame(id);
+            long oldPriceCents = before != null ? before.getCurrentPriceCents() : 0L;
+            Game saved = applyUpdate(id, updatedGame);
+            if (saved != null) {
+                publishUpserts(List.of(saved));
+                if (before != null) {
+                    // Queued for a background fan-out to the game's wishlisters
+                    priceDrops.onPriceChange(oldPriceCents, saved);
+                }
+            }
+            return saved;
+        }
+    }
+
+    private Game applyUpdate(Long id, Game updatedGame) {
         return gameRepository.findById(id).map(game -> {
             game.setTitle(updatedGame.getTitle());
             game.setGenre(updatedGame.getGenre());
@@ -63,26 +252,35 @@ public class GameService {
             game.setRating(updatedGame.getRating());
             game.setImage(updatedGame.getImage());
             game.setBadge(updatedGame.getBadge());
+            game.setDiscountPercentage(updatedGame.getDiscountPercentage());
 
-            // Recalculate discount percentage if both prices are provided
-            if (game.getOriginalPrice() != null && game.getDiscountPrice() != null) {
-                double percentage = ((game.getOriginalPrice() - game.getDiscountPrice()) / game.getOriginalPrice())
-                        * 100;
-                game.setDiscountPercentage((int) Math.round(percentage));
-            } else {
-                game.setDiscountPercentage(updatedGame.getDiscountPercentage());
-            }
+            // Same cents-based percentage and price checks as create and import
+            applyPricing(game);
 
             return gameRepository.save(game);
         }).orElse(null);
     }
 
     public void deleteGame(Long id) {
-        gameRepository.deleteById(id);
+        deleteGamesByIds(List.of(id));
     }
 
     public List<Game> searchGames(String title) {
-        return gameRepository.findByTitleContainingIgnoreCase(title);
+        return searchGames(title, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Search titles through the in-memory trigram index, best match first
+     *
+     * @param query one or more terms, all of which must appear in the title
+     * @param limit maximum number of games to return
+     */
+    public List<Game> searchGames(String query, int limit) {
+        CatalogSnapshot current = getSnapshot();
+        return titleIndex.search(query, limit).stream()
+                .map(current::getGame)
+                .filter(game -> game != null)
+                .toList();
     }
 
     // New methods for enhanced frontend support
@@ -91,45 +289,160 @@ public class GameService {
      * Get games on sale (with discount prices)
      */
     public List<Game> getGamesOnSale() {
-        return gameRepository.findGamesOnSale();
+        return getSnapshot().getGamesOnSale();
+    }
+
+    /**
+     * Get games whose current price is within [minPrice, maxPrice], cheapest first
+     */
+    public List<Game> getGamesByPriceRange(Double minPrice, Double maxPrice) {
+        if (minPrice == null || maxPrice == null || minPrice < 0 || minPrice > maxPrice) {
+            throw new IllegalArgumentException("Price range must satisfy 0 <= min <= max");
+        }
+        return gameRepository.findByPriceRange(minPrice, maxPrice);
+    }
+
+    /**
+     * Backfill the materialized pricing columns for rows that predate them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDerivedPricing() {
+        int updated = gameRepository.backfillDerivedPricing();
+        if (updated > 0) {
+            System.out.println("Backfilled current_price/is_on_sale for " + updated + " games");
+        }
     }
 
     /**
      * Get games by rating range
      */
     public List<Game> getGamesByRating(Double minRating) {
-        return gameRepository.findByRatingGreaterThanEqual(minRating);
+        return getSnapshot().getGamesByRating(minRating);
     }
 
     /**
      * Get games by genre
      */
     public List<Game> getGamesByGenre(String genre) {
-        return gameRepository.findByGenreIgnoreCase(genre);
+        return getSnapshot().getGamesByGenre(genre);
     }
 
     /**
      * Get games by platform
      */
     public List<Game> getGamesByPlatform(String platform) {
-        return gameRepository.findByPlatformIgnoreCase(platform);
+        return getSnapshot().getGamesByPlatform(platform);
     }
 
     /**
      * Get featured games (games with specific badges)
      */
     public List<Game> getFeaturedGames() {
-        return gameRepository.findByBadgeIgnoreCase("FEATURED");
+        return getSnapshot().getGamesByBadge("FEATURED");
+    }
+
+    // ==================== STOREFRONT ====================
+
+    /**
+     * Get the home page shelves (featured, sale, free, popular). They are
+     * rebuilt only when the snapshot has been replaced since they were built.
+     */
+    public StorefrontDto getStorefront() {
+        CatalogSnapshot current = getSnapshot();
+        CachedStorefront cached = storefront;
+        if (cached == null || cached.source() != current) {
+            // Shelves are keyed on the snapshot instance itself, so they can never
+            // be cached against data other than the data they were built from
+            cached = new CachedStorefront(current, StorefrontBuilder.build(current));
+            storefront = cached;
+        }
+        return cached.shelves();
+    }
+
+    // ==================== FACETED QUERY ====================
+
+    /**
+     * Filter the catalog by any combination of facets and count every facet value
+     *
+     * @param query selected genres/platforms/badges, rating and price bounds, sale flag
+     * @param after keyset cursor from the previous page, null for the first page
+     * @param limit page size, defaults to DEFAULT_PAGE_SIZE and is capped at MAX_PAGE_SIZE
+     */
+    public GameQueryResultDto queryGames(GameFacetQueryDto query, Long after, Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        if (after != null && (after < 0 || after > Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException("Cursor out of range: " + after);
+        }
+        return facetIndex.query(query, getSnapshot(), after, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    // ==================== PAGINATION ====================
+
+    /**
+     * Get one keyset page of games, ordered by id
+     *
+     * @param filter optional filter (genre, platform, badge, rating, sale)
+     * @param after  cursor from the previous page's nextCursor, null for the first page
+     * @param limit  page size, defaults to DEFAULT_PAGE_SIZE and is capped at MAX_PAGE_SIZE
+     * @param fields comma-separated Game properties to return, null for all of them
+     */
+    public GamePageDto getGamesPage(GameFilterDto filter, Long after, Integer limit, String fields) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+
+        // Fetch one extra row to learn whether another page exists
+        List<Map<String, Object>> rows = gameRepository.findPage(filter, after, pageSize + 1, parseFields(fields));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        Long nextCursor = hasMore ? (Long) rows.get(rows.size() - 1).get("id") : null;
+        return new GamePageDto(rows, nextCursor, hasMore);
+    }
+
+    private List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return GameRepositoryImpl.ALL_FIELDS;
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .distinct()
+                .toList();
     }
 
     /**
      * Delete all games (bulk operation for testing/admin purposes)
-     * This also handles cart item cleanup automatically via database cascading
+     * Walks the table in id order and deletes it chunk by chunk, together with
+     * the cart and wishlist rows that reference each chunk
      */
     public long deleteAllGames() {
-        long count = gameRepository.count();
-        gameRepository.deleteAll();
-        return count;
+        synchronized (catalogWriteLock) {
+            long count = 0;
+            Long after = 0L;
+            List<Long> ids;
+            try {
+                while (!(ids = gameRepository.findIdsAfter(after, Limit.of(deleteChunkSize))).isEmpty()) {
+                    count += deleteChunk(ids);
+                    after = ids.get(ids.size() - 1);
+                }
+            } catch (RuntimeException e) {
+                // Earlier chunks are already committed; reload rather than keep serving their games
+                invalidateCatalog();
+                throw e;
+            }
+            titleIndex.clear();
+            facetIndex.clear();
+            snapshot.set(CatalogSnapshot.empty());
+            bumpCatalogVersion();
+            return count;
+        }
     }
 
     /**
@@ -137,9 +450,41 @@ public class GameService {
      * Returns the number of games actually deleted
      */
     public long deleteGamesByIds(List<Long> gameIds) {
-        List<Game> existingGames = gameRepository.findAllById(gameIds);
-        gameRepository.deleteAllById(gameIds);
-        return existingGames.size();
+        List<Long> ids = gameIds.stream().distinct().toList();
+        synchronized (catalogWriteLock) {
+            long count = 0;
+            for (int from = 0; from < ids.size(); from += deleteChunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + deleteChunkSize, ids.size()));
+                count += deleteChunk(chunk);
+                // Publish every committed chunk, so a later chunk failing cannot leave its games listed
+                publishRemovals(chunk);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Delete one chunk of games in its own transaction: first the cart and
+     * wishlist rows pointing at them, then the games, each as a single
+     * DELETE ... WHERE id IN (...) statement
+     *
+     * @return number of games actually deleted
+     */
+    private int deleteChunk(List<Long> ids) {
+        List<Long> chunk = new ArrayList<>(ids);
+        int[] deleted = transactionTemplate.execute(status -> new int[] {
+                cartItemRepository.deleteByGameIdIn(chunk) + wishlistItemRepository.deleteByGameIdIn(chunk),
+                gameRepository.deleteByIdIn(chunk) });
+        if (deleted == null) {
+            return 0;
+        }
+        if (deleted[0] > 0) {
+            // Cart and wishlist rows went away without their services seeing it
+            badgeCounters.invalidateAll();
+            membership.invalidateAll();
+        }
+        wishlistIndex.removeGames(chunk);
+        return deleted[1];
     }
 
 }
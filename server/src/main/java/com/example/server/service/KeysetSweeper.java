@@ -0,0 +1,221 @@
+package com.example.server.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Background cleanup of a user-owned table, one small primary-key window at
+ * a time.
+ *
+ * A pass walks the table from its lowest to its highest id (as of the start
+ * of the pass) in windows of window-size ids. Each window is one short
+ * transaction: find the rows to delete inside the window, delete them by
+ * id, then let the subclass fix up anything derived from them. Statements
+ * never examine more than one window of rows, so locks stay short whatever
+ * the table size, and a pause between windows plus a cap on windows per run
+ * keeps the sweeper from competing with live traffic. A pass that does not
+ * finish in one run resumes from its cursor on the next.
+ *
+ * Metrics (tag "job" = the sweeper's name):
+ * sweeper.rows.deleted - rows deleted,
+ * sweeper.windows - windows examined,
+ * sweeper.lag - seconds since the start of the last completed pass; every
+ * row that qualified for deletion before that moment is gone, so this is
+ * how late the sweeper can be.
+ */
+public abstract class KeysetSweeper {
+
+    protected final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String name;
+    private final String table;
+    private final int windowSize;
+    private final int maxWindowsPerRun;
+    private final long pauseMs;
+
+    private final Counter rowsDeleted;
+    private final Counter windows;
+    private final ReentrantLock running = new ReentrantLock();
+
+    // Pass state, guarded by running
+    private long cursor; // highest id already examined
+    private long passEnd; // highest id when the pass started; 0 = no pass in progress
+    private long passStartedAt;
+
+    private volatile long lastCompletedPassStartedAt = System.currentTimeMillis();
+
+    protected KeysetSweeper(String name, String table, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            int windowSize, int maxWindowsPerRun, long pauseMs) {
+        this.name = name;
+        this.table = table;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowSize = Math.max(1, windowSize);
+        this.maxWindowsPerRun = Math.max(1, maxWindowsPerRun);
+        this.pauseMs = Math.max(0, pauseMs);
+
+        this.rowsDeleted = Counter.builder("sweeper.rows.deleted")
+                .description("Rows deleted by the background sweeper")
+                .tag("job", name)
+                .register(meterRegistry);
+        this.windows = Counter.builder("sweeper.windows")
+                .description("Primary-key windows examined by the background sweeper")
+                .tag("job", name)
+                .register(meterRegistry);
+        Gauge.builder("sweeper.lag", this, sweeper -> sweeper.getLagMillis() / 1000.0)
+                .description("Seconds since the start of the sweeper's last completed pass")
+                .tag("job", name)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ids and owners of the rows to delete with fromId < id <= toId
+     *
+     * @return row id -> user id
+     */
+    protected abstract Map<Long, Long> findRows(long fromId, long toId);
+
+    /**
+     * Delete the given rows (found by findRows in the same transaction)
+     *
+     * @return number of rows deleted
+     */
+    protected int deleteRows(List<Long> ids) {
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE id IN (" + placeholders(ids.size()) + ")",
+                ids.toArray());
+    }
+
+    /**
+     * Called in the window's transaction after rows of these users were deleted
+     */
+    protected void onDeleted(Set<Long> userIds) {
+    }
+
+    /**
+     * Called once the window's transaction has committed
+     */
+    protected void afterCommit(Set<Long> userIds) {
+    }
+
+    /**
+     * Examine up to max-windows-per-run windows, continuing the current pass
+     *
+     * @return number of rows deleted
+     */
+    public int sweep() {
+        // A manual run and the scheduled one must not share the cursor
+        if (!running.tryLock()) {
+            return 0;
+        }
+        try {
+            int deleted = 0;
+            for (int window = 0; window < maxWindowsPerRun; window++) {
+                if (passEnd == 0 && !startPass()) {
+                    break;
+                }
+
+                long from = cursor;
+                long to = Math.min(from + windowSize, passEnd);
+                deleted += sweepWindow(from, to);
+                cursor = to;
+
+                if (cursor >= passEnd) {
+                    lastCompletedPassStartedAt = passStartedAt;
+                    passEnd = 0;
+                    break;
+                }
+                if (!pause()) {
+                    break;
+                }
+            }
+
+            if (deleted > 0) {
+                System.out.println("Sweeper " + name + ": deleted " + deleted + " rows from " + table);
+            }
+            return deleted;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Milliseconds since the start of the last completed pass
+     */
+    public long getLagMillis() {
+        return System.currentTimeMillis() - lastCompletedPassStartedAt;
+    }
+
+    private boolean startPass() {
+        long started = System.currentTimeMillis();
+        Long[] range = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM " + table,
+                (rs, i) -> new Long[] { rs.getObject(1, Long.class), rs.getObject(2, Long.class) });
+        if (range == null || range[1] == null) {
+            // Empty table: trivially swept
+            lastCompletedPassStartedAt = started;
+            return false;
+        }
+        cursor = range[0] - 1;
+        passEnd = range[1];
+        passStartedAt = started;
+        return true;
+    }
+
+    private int sweepWindow(long fromId, long toId) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        Integer deleted = transactionTemplate.execute(status -> {
+            Map<Long, Long> rows = findRows(fromId, toId);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            List<Long> ids = new ArrayList<>(rows.keySet());
+            int count = deleteRows(ids);
+            if (count > 0) {
+                userIds.addAll(rows.values());
+                onDeleted(userIds);
+            }
+            return count;
+        });
+        windows.increment();
+
+        if (deleted != null && deleted > 0) {
+            rowsDeleted.increment(deleted);
+            afterCommit(userIds);
+            return deleted;
+        }
+        return 0;
+    }
+
+    /**
+     * "?, ?, ..." with count markers, for IN lists
+     */
+    protected static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // false if interrupted (e.g. shutting down); the pass resumes next run
+    private boolean pause() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.server.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.server.model.NotificationOutbox;
+
+/**
+ * Appends one line per notification to notifications.sink.file, or prints
+ * them when no file is configured
+ */
+@Component
+public class LogNotificationSink implements NotificationSink {
+
+    @Value("${notifications.sink.file:}")
+    private String file;
+
+    @Override
+    public synchronized void deliver(List<NotificationOutbox> notifications) {
+        if (file == null || file.isBlank()) {
+            for (NotificationOutbox notification : notifications) {
+                System.out.println(format(notification));
+            }
+            return;
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (NotificationOutbox notification : notifications) {
+                writer.write(format(notification));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write notifications to " + file, e);
+        }
+    }
+
+    private static String format(NotificationOutbox notification) {
+        return "Notification " + notification.getId() + " [" + notification.getKind() + "] to user "
+                + notification.getUserId() + ": " + notification.getMessage();
+    }
+}
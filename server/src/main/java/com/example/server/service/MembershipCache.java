@@ -0,0 +1,170 @@
+package com.example.server.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.server.model.CartItem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Per-user sets of the game IDs in the wishlist and in the cart, as
+ * compressed bitmaps (plus the cart's quantities), so the catalog can mark
+ * a whole grid of games with one lookup instead of one exists query per
+ * card.
+ *
+ * Bitmaps are loaded on first use and then kept current by WishlistService
+ * and CartService. They are copy-on-write: an update replaces the user's
+ * bitmap, so a bitmap handed out is never modified and needs no locking.
+ * Bounded and expiring like BadgeCounterCache.
+ */
+@Component
+public class MembershipCache {
+
+    private final Cache<Long, RoaringBitmap> wishlists;
+    private final Cache<Long, CartMembership> carts;
+
+    /**
+     * Games in a user's cart; do not modify
+     *
+     * @param quantities quantity per game ID
+     */
+    public record CartMembership(RoaringBitmap games, Map<Long, Integer> quantities) {
+
+        public static final CartMembership EMPTY = new CartMembership(new RoaringBitmap(), Map.of());
+
+        public static CartMembership of(List<CartItem> items) {
+            if (items.isEmpty()) {
+                return EMPTY;
+            }
+            RoaringBitmap games = new RoaringBitmap();
+            Map<Long, Integer> quantities = new HashMap<>(items.size() * 2);
+            for (CartItem item : items) {
+                Long gameId = item.getGame().getId();
+                games.add(toBit(gameId));
+                quantities.put(gameId, item.getQuantity());
+            }
+            return new CartMembership(games, quantities);
+        }
+
+        public int quantity(Long gameId) {
+            return quantities.getOrDefault(gameId, 0);
+        }
+    }
+
+    public MembershipCache(@Value("${membership.cache.max-users:100000}") long maxUsers,
+            @Value("${membership.cache.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.wishlists = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+        this.carts = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    // ==================== WISHLIST ====================
+
+    /**
+     * The user's wishlisted game IDs; do not modify
+     */
+    public RoaringBitmap getWishlist(Long userId, Function<Long, RoaringBitmap> loader) {
+        return wishlists.get(userId, loader);
+    }
+
+    /**
+     * Record an add or remove; users not in the cache are loaded on their next read
+     */
+    public void setWishlisted(Long userId, Long gameId, boolean wishlisted) {
+        wishlists.asMap().computeIfPresent(userId, (id, games) -> {
+            RoaringBitmap updated = games.clone();
+            if (wishlisted) {
+                updated.add(toBit(gameId));
+            } else {
+                updated.remove(toBit(gameId));
+            }
+            return updated;
+        });
+    }
+
+    // ==================== CART ====================
+
+    public CartMembership getCart(Long userId, Function<Long, CartMembership> loader) {
+        return carts.get(userId, loader);
+    }
+
+    /**
+     * Store the lines a cart mutation just read back
+     */
+    public void setCart(Long userId, List<CartItem> items) {
+        carts.put(userId, CartMembership.of(items));
+    }
+
+    // ==================== INVALIDATION ====================
+
+    /**
+     * Drop both sets of these users, e.g. after a sweeper deleted some of their rows
+     */
+    public void invalidateUsers(Collection<Long> userIds) {
+        wishlists.invalidateAll(userIds);
+        carts.invalidateAll(userIds);
+    }
+
+    /**
+     * Drop every set, e.g. after games were deleted together with their cart and wishlist rows
+     */
+    public void invalidateAll() {
+        wishlists.invalidateAll();
+        carts.invalidateAll();
+    }
+
+    // ==================== HELPERS ====================
+
+    public static RoaringBitmap of(Collection<Long> gameIds) {
+        RoaringBitmap games = new RoaringBitmap();
+        for (Long gameId : gameIds) {
+            games.add(toBit(gameId));
+        }
+        games.runOptimize();
+        return games;
+    }
+
+    /**
+     * The given IDs that are in the set, in request order; all of the set if gameIds is null
+     */
+    public static List<Long> select(RoaringBitmap games, Collection<Long> gameIds) {
+        List<Long> result = new ArrayList<>();
+        if (gameIds == null) {
+            games.forEach((int bit) -> result.add((long) bit));
+            return result;
+        }
+        for (Long gameId : gameIds) {
+            if (contains(games, gameId)) {
+                result.add(gameId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether a game is in the set; IDs outside int range never are
+     */
+    public static boolean contains(RoaringBitmap games, Long gameId) {
+        return gameId != null && gameId >= 0 && gameId <= Integer.MAX_VALUE && games.contains(gameId.intValue());
+    }
+
+    // Game IDs are auto-increment keys well inside int range (same as CatalogFacetIndex)
+    private static int toBit(Long gameId) {
+        return Math.toIntExact(gameId);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.server.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.server.model.NotificationOutbox;
+
+/**
+ * Delivers pending notification_outbox rows to the NotificationSink.
+ *
+ * Each run drains up to max-pages pages of page-size rows, oldest first:
+ * read a page of unsent rows (served by the (sent_at, id) index), hand it
+ * to the sink, then stamp sent_at on the whole page in one UPDATE. A page
+ * whose delivery fails stays pending and is retried on the next run, so
+ * delivery is at least once.
+ */
+@Component
+public class NotificationOutboxRelay {
+
+    private static final String PENDING_SQL = "SELECT id, user_id, game_id, kind, message, created_at "
+            + "FROM notification_outbox WHERE sent_at IS NULL ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationSink sink;
+    private final ReentrantLock running = new ReentrantLock();
+
+    @Value("${notifications.relay.page-size:500}")
+    private int pageSize;
+
+    @Value("${notifications.relay.max-pages-per-run:100}")
+    private int maxPagesPerRun;
+
+    public NotificationOutboxRelay(JdbcTemplate jdbcTemplate, NotificationSink sink) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sink = sink;
+    }
+
+    /**
+     * Deliver what is pending
+     *
+     * @return number of notifications delivered
+     */
+    @Scheduled(fixedDelayString = "${notifications.relay.interval-ms:5000}")
+    public int relay() {
+        if (!running.tryLock()) {
+            return 0;
+        }
+        try {
+            int delivered = 0;
+            for (int page = 0; page < maxPagesPerRun; page++) {
+                List<NotificationOutbox> pending = jdbcTemplate.query(PENDING_SQL,
+                        (rs, rowNum) -> new NotificationOutbox(rs.getLong("id"), rs.getLong("user_id"),
+                                rs.getLong("game_id"), rs.getString("kind"), rs.getString("message"),
+                                rs.getTimestamp("created_at").toLocalDateTime(), null),
+                        pageSize);
+                if (pending.isEmpty()) {
+                    break;
+                }
+
+                sink.deliver(pending);
+                markSent(pending);
+                delivered += pending.size();
+                if (pending.size() < pageSize) {
+                    break;
+                }
+            }
+            return delivered;
+        } catch (RuntimeException e) {
+            System.out.println("Notification relay failed, will retry: " + e.getMessage());
+            return 0;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private void markSent(List<NotificationOutbox> notifications) {
+        Object[] args = new Object[notifications.size() + 1];
+        args[0] = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < notifications.size(); i++) {
+            args[i + 1] = notifications.get(i).getId();
+        }
+        jdbcTemplate.update("UPDATE notification_outbox SET sent_at = ? WHERE id IN ("
+                + String.join(", ", Collections.nCopies(notifications.size(), "?")) + ")", args);
+    }
+}
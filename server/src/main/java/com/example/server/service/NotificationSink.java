@@ -0,0 +1,17 @@
+package com.example.server.service;
+
+import java.util.List;
+
+import com.example.server.model.NotificationOutbox;
+
+/**
+ * Where outbox notifications are delivered. Stands in for email: the
+ * default implementation writes them to a log file or standard out.
+ */
+public interface NotificationSink {
+
+    /**
+     * Deliver a batch; throwing leaves every row in it pending for the next relay run
+     */
+    void deliver(List<NotificationOutbox> notifications);
+}
@@ -0,0 +1,238 @@
+package com.example.server.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.server.dto.CartSummaryDto;
+import com.example.server.dto.OrderDto;
+import com.example.server.model.CartItem;
+import com.example.server.model.Game;
+import com.example.server.model.Order;
+import com.example.server.model.OrderLine;
+import com.example.server.repository.CheckoutIdempotencyKeyRepository;
+import com.example.server.repository.OrderLineRepository;
+import com.example.server.repository.OrderRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Checkout: turns a cart into an order with a price snapshot.
+ *
+ * A checkout costs a fixed number of statements however many lines the
+ * cart has: the order header, one JDBC batch for the lines, the key row and
+ * one batch clearing the cart, all in the cart's versioned transaction.
+ *
+ * Clients retrying a submission send the same Idempotency-Key and get the
+ * first order back instead of a second one. Recent keys are answered from
+ * memory; older ones (up to checkout.idempotency.ttl) from the
+ * checkout_idempotency_keys table, whose unique key also stops two
+ * instances from placing the same submission twice.
+ */
+@Service
+public class OrderService {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final String STATUS_PLACED = "PLACED";
+
+    private static final String LINE_SQL = "INSERT INTO order_lines "
+            + "(order_id, game_id, title, unit_price_cents, quantity, line_total_cents) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Expired keys deleted per statement by the purge
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    /**
+     * Outcome of a checkout
+     *
+     * @param replayed true if the order was placed by an earlier request with the same key
+     */
+    public record Checkout(OrderDto order, boolean replayed) {
+    }
+
+    private final CartService cartService;
+    private final PricingEngine pricing;
+    private final OrderRepository orderRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final CheckoutIdempotencyKeyRepository keyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration keyTtl;
+    private final Cache<String, OrderDto> recentKeys; // "userId:key" -> order
+
+    @Value("${cart.batch.jdbc-batch-size:100}")
+    private int batchSize;
+
+    public OrderService(CartService cartService, PricingEngine pricing, OrderRepository orderRepository,
+            OrderLineRepository orderLineRepository, CheckoutIdempotencyKeyRepository keyRepository,
+            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${checkout.idempotency.ttl:24h}") Duration keyTtl,
+            @Value("${checkout.idempotency.cache-max-keys:100000}") long maxCachedKeys) {
+        this.cartService = cartService;
+        this.pricing = pricing;
+        this.orderRepository = orderRepository;
+        this.orderLineRepository = orderLineRepository;
+        this.keyRepository = keyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.keyTtl = keyTtl;
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(maxCachedKeys)
+                .expireAfterWrite(keyTtl)
+                .build();
+    }
+
+    /**
+     * Place an order for everything in the user's cart and empty the cart
+     *
+     * @param userId         the logged-in user ID
+     * @param idempotencyKey client-chosen key for this submission, or null to skip deduplication
+     * @return the order, and whether it came from an earlier submission
+     */
+    public Checkout checkout(Long userId, String idempotencyKey) {
+        String key = normalizeKey(idempotencyKey);
+        if (key != null) {
+            OrderDto cached = recentKeys.getIfPresent(cacheKey(userId, key));
+            if (cached != null) {
+                return new Checkout(cached, true);
+            }
+        }
+
+        AtomicBoolean replayed = new AtomicBoolean();
+        OrderDto order;
+        try {
+            order = cartService.checkout(userId,
+                    () -> {
+                        OrderDto previous = key != null ? findByKey(userId, key) : null;
+                        replayed.set(previous != null);
+                        return previous;
+                    },
+                    items -> placeOrder(userId, key, items));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance recorded the same key first; its order has committed by now
+            OrderDto previous = key != null ? findByKey(userId, key) : null;
+            if (previous == null) {
+                throw e;
+            }
+            replayed.set(true);
+            order = previous;
+        }
+
+        if (key != null) {
+            recentKeys.put(cacheKey(userId, key), order);
+        }
+        return new Checkout(order, replayed.get());
+    }
+
+    /**
+     * Get the user's orders with their lines, newest first (two queries in total)
+     *
+     * @param userId the logged-in user ID
+     * @return list of orders
+     */
+    public List<OrderDto> getOrders(Long userId) {
+        List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+        }
+        Map<Long, List<OrderLine>> linesByOrder = new HashMap<>();
+        for (OrderLine line : orderLineRepository.findByOrderIdInOrderById(orderIds)) {
+            linesByOrder.computeIfAbsent(line.getOrderId(), id -> new ArrayList<>()).add(line);
+        }
+
+        List<OrderDto> result = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            result.add(new OrderDto(order, linesByOrder.getOrDefault(order.getId(), List.of())));
+        }
+        return result;
+    }
+
+    /**
+     * Delete persisted keys older than the TTL, a chunk per transaction
+     */
+    @Scheduled(fixedDelayString = "${checkout.idempotency.purge-interval-ms:600000}")
+    public void purgeExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(keyTtl);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(
+                    status -> keyRepository.deleteCreatedBefore(cutoff, PURGE_CHUNK_SIZE));
+            total += deleted;
+        } while (deleted == PURGE_CHUNK_SIZE);
+
+        if (total > 0) {
+            System.out.println("Purged " + total + " expired checkout idempotency keys");
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Write the order for the given cart lines; runs in the cart's transaction
+     */
+    private OrderDto placeOrder(Long userId, String key, List<CartItem> items) {
+        CartSummaryDto totals = pricing.summarize(items, 0);
+        Order order = orderRepository.save(new Order(null, userId, STATUS_PLACED, totals.getCount(),
+                totals.getSubtotalCents(), totals.getTaxCents(), totals.getTotalCents(), null));
+
+        List<OrderLine> lines = new ArrayList<>(items.size());
+        for (CartItem item : items) {
+            Game game = item.getGame();
+            lines.add(new OrderLine(null, order.getId(), game.getId(), game.getTitle(),
+                    game.getCurrentPriceCents(), item.getQuantity(), item.getTotalPriceCents()));
+        }
+        jdbcTemplate.batchUpdate(LINE_SQL, lines, batchSize, (ps, line) -> {
+            ps.setLong(1, line.getOrderId());
+            ps.setLong(2, line.getGameId());
+            ps.setString(3, line.getTitle());
+            ps.setLong(4, line.getUnitPriceCents());
+            ps.setInt(5, line.getQuantity());
+            ps.setLong(6, line.getLineTotalCents());
+        });
+
+        if (key != null) {
+            keyRepository.insert(userId, key, order.getId(), LocalDateTime.now());
+        }
+        return new OrderDto(order, lines);
+    }
+
+    private OrderDto findByKey(Long userId, String key) {
+        return keyRepository.findOrderId(userId, key)
+                .flatMap(orderRepository::findById)
+                .map(order -> new OrderDto(order, orderLineRepository.findByOrderIdInOrderById(List.of(order.getId()))))
+                .orElse(null);
+    }
+
+    private static String normalizeKey(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return null;
+        }
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        return key;
+    }
+
+    private static String cacheKey(Long userId, String key) {
+        return userId + ":" + key;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.server.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.server.model.Game;
+import com.example.server.util.Cents;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fans a game's price drop out to everyone who wishlisted it.
+ *
+ * The admin update only hands the drop to a bounded queue and returns. A
+ * single background thread looks the audience up in the reverse wishlist
+ * index (no per-user queries) and writes one notification_outbox row per
+ * user, batch-size users per transaction as one JDBC batch, pausing between
+ * batches so a game wishlisted by a million users trickles in rather than
+ * monopolizing the database. NotificationOutboxRelay then delivers the rows.
+ *
+ * When the queue is full further drops are logged and skipped; the outbox
+ * is the durable part, the queue only smooths bursts of admin edits.
+ */
+@Service
+public class PriceDropNotifier {
+
+    public static final String KIND_PRICE_DROP = "PRICE_DROP";
+
+    private static final String OUTBOX_SQL = "INSERT INTO notification_outbox "
+            + "(user_id, game_id, kind, message, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * A lowered current price
+     */
+    public record PriceDrop(Long gameId, String title, long oldPriceCents, long newPriceCents) {
+    }
+
+    private final WishlistReverseIndex reverseIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor fanOut;
+
+    // Users (outbox rows) written per transaction
+    @Value("${notifications.price-drop.batch-size:1000}")
+    private int batchSize;
+
+    // Pause between batches of one fan-out
+    @Value("${notifications.price-drop.pause-ms:10}")
+    private long pauseMs;
+
+    public PriceDropNotifier(WishlistReverseIndex reverseIndex, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${notifications.price-drop.queue-capacity:1000}") int queueCapacity) {
+        this.reverseIndex = reverseIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fanOut = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "price-drop-fanout");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (task, executor) -> System.out.println("Price drop queue full, skipping notification: " + task));
+    }
+
+    /**
+     * Queue notifications if the update lowered the game's current price;
+     * never blocks
+     *
+     * @param oldPriceCents current price before the update
+     * @param game          the game as saved
+     */
+    public void onPriceChange(long oldPriceCents, Game game) {
+        long newPriceCents = game.getCurrentPriceCents();
+        if (newPriceCents >= oldPriceCents) {
+            return;
+        }
+        PriceDrop drop = new PriceDrop(game.getId(), game.getTitle(), oldPriceCents, newPriceCents);
+        fanOut.execute(new FanOutTask(drop));
+    }
+
+    private final class FanOutTask implements Runnable {
+        private final PriceDrop drop;
+
+        FanOutTask(PriceDrop drop) {
+            this.drop = drop;
+        }
+
+        @Override
+        public void run() {
+            try {
+                int notified = fanOut(drop);
+                System.out.println("Price drop on game " + drop.gameId() + ": " + notified + " notifications queued");
+            } catch (RuntimeException e) {
+                System.out.println("Price drop fan-out failed for game " + drop.gameId() + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return drop.toString();
+        }
+    }
+
+    /**
+     * Write one outbox row per user who wishlisted the game
+     *
+     * @return number of rows written
+     */
+    int fanOut(PriceDrop drop) {
+        RoaringBitmap users = reverseIndex.getUsers(drop.gameId());
+        String message = String.format("%s is now $%.2f (was $%.2f)", drop.title(),
+                Cents.toAmount(drop.newPriceCents()), Cents.toAmount(drop.oldPriceCents()));
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+
+        int written = 0;
+        List<Long> batch = new ArrayList<>(batchSize);
+        IntIterator iterator = users.getIntIterator();
+        while (iterator.hasNext()) {
+            batch.add((long) iterator.next());
+            if (batch.size() == batchSize || !iterator.hasNext()) {
+                List<Long> userIds = batch;
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(OUTBOX_SQL, userIds,
+                        batchSize, (ps, userId) -> {
+                            ps.setLong(1, userId);
+                            ps.setLong(2, drop.gameId());
+                            ps.setString(3, KIND_PRICE_DROP);
+                            ps.setString(4, message);
+                            ps.setTimestamp(5, createdAt);
+                        }));
+                written += userIds.size();
+                batch = new ArrayList<>(batchSize);
+                if (iterator.hasNext() && !pause()) {
+                    break;
+                }
+            }
+        }
+        return written;
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Let queued fan-outs finish (briefly) before the application stops
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        fanOut.shutdown();
+        if (!fanOut.awaitTermination(10, TimeUnit.SECONDS)) {
+            System.out.println("Price drop fan-out: " + fanOut.getQueue().size() + " drops not notified on shutdown");
+            fanOut.shutdownNow();
+        }
+    }
+}
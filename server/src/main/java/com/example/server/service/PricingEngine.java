@@ -0,0 +1,84 @@
+package com.example.server.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.server.dto.CartSummaryDto;
+import com.example.server.model.CartItem;
+import com.example.server.model.Game;
+
+/**
+ * Price arithmetic in whole cents.
+ *
+ * Prices are stored as Double columns, but every sum, product and ratio here
+ * is done on primitive longs: amounts are converted to cents once (rounded
+ * half-up, see Cents), so cart totals are exact however many lines they
+ * have, and no wrapper objects are created along the way. Convert back with
+ * Cents.toAmount only at the API edge.
+ */
+@Component
+public class PricingEngine {
+
+    private final TaxPolicy taxPolicy;
+
+    public PricingEngine() {
+        this(TaxPolicy.NONE);
+    }
+
+    public PricingEngine(TaxPolicy taxPolicy) {
+        this.taxPolicy = taxPolicy;
+    }
+
+    @Autowired
+    public PricingEngine(ObjectProvider<TaxPolicy> taxPolicy) {
+        this(taxPolicy.getIfAvailable(() -> TaxPolicy.NONE));
+    }
+
+    // ==================== PRICES ====================
+
+    // Unit conversions and per-line arithmetic live in util.Cents, next to the
+    // entity getters that use them
+
+    /**
+     * Price a buyer pays for one unit: the discount price if set, otherwise the original price
+     */
+    public static long unitPriceCents(Game game) {
+        return game.getCurrentPriceCents();
+    }
+
+    public static long lineTotalCents(CartItem item) {
+        return item.getTotalPriceCents();
+    }
+
+    // ==================== CARTS ====================
+
+    public static long subtotalCents(List<CartItem> items) {
+        long subtotal = 0;
+        for (int i = 0, n = items.size(); i < n; i++) {
+            subtotal = Math.addExact(subtotal, lineTotalCents(items.get(i)));
+        }
+        return subtotal;
+    }
+
+    public long taxCents(long subtotalCents) {
+        return taxPolicy.taxCents(subtotalCents);
+    }
+
+    /**
+     * Count, subtotal, tax and total of a cart in one pass over its lines
+     */
+    public CartSummaryDto summarize(List<CartItem> items, long version) {
+        int count = 0;
+        long subtotal = 0;
+        for (int i = 0, n = items.size(); i < n; i++) {
+            CartItem item = items.get(i);
+            count += item.getQuantity();
+            subtotal = Math.addExact(subtotal, lineTotalCents(item));
+        }
+        long tax = taxCents(subtotal);
+        return new CartSummaryDto(items, count, subtotal, tax, subtotal + tax, version);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.server.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Purges delivered notifications: notification_outbox rows whose sent_at is
+ * older than notifications.outbox.retention.
+ *
+ * NotificationOutboxRelay only stamps sent_at, so without this the outbox
+ * grows by one row per notification forever. Pending rows (sent_at IS NULL)
+ * are never touched, and nothing is cached from the outbox, so there is
+ * nothing to fix up after a window commits.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.outbox.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class SentNotificationSweeper extends KeysetSweeper {
+
+    private static final String FIND_SQL = "SELECT id, user_id FROM notification_outbox "
+            + "WHERE id > ? AND id <= ? AND sent_at < ?";
+
+    private final Duration retention;
+
+    public SentNotificationSweeper(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry, @Value("${notifications.outbox.retention:7d}") Duration retention,
+            @Value("${notifications.outbox.sweeper.window-size:1000}") int windowSize,
+            @Value("${notifications.outbox.sweeper.max-windows-per-run:50}") int maxWindowsPerRun,
+            @Value("${notifications.outbox.sweeper.pause-ms:50}") long pauseMs) {
+        super("sent-notifications", "notification_outbox", jdbcTemplate, transactionManager, meterRegistry,
+                windowSize, maxWindowsPerRun, pauseMs);
+        this.retention = retention;
+    }
+
+    @Scheduled(initialDelayString = "${notifications.outbox.sweeper.interval-ms:300000}",
+            fixedDelayString = "${notifications.outbox.sweeper.interval-ms:300000}")
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    @Override
+    protected Map<Long, Long> findRows(long fromId, long toId) {
+        Map<Long, Long> rows = new LinkedHashMap<>();
+        jdbcTemplate.query(FIND_SQL, rs -> {
+            rows.put(rs.getLong(1), rs.getLong(2));
+        }, fromId, toId, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+        return rows;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.server.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Deletes wishlist entries whose game no longer exists.
+ *
+ * GameService removes wishlist rows together with the games it deletes;
+ * this catches rows left behind by games removed any other way (e.g.
+ * directly in the database, or on schemas without the foreign key).
+ */
+@Component
+@ConditionalOnProperty(name = "wishlist.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class StaleWishlistSweeper extends KeysetSweeper {
+
+    private static final String FIND_SQL = "SELECT w.id, w.user_id FROM wishlist_items w "
+            + "LEFT JOIN games g ON g.id = w.game_id "
+            + "WHERE w.id > ? AND w.id <= ? AND g.id IS NULL";
+
+    private final BadgeCounterCache badgeCounters;
+    private final MembershipCache membership;
+
+    public StaleWishlistSweeper(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry, BadgeCounterCache badgeCounters,
+            MembershipCache membership, @Value("${wishlist.sweeper.window-size:1000}") int windowSize,
+            @Value("${wishlist.sweeper.max-windows-per-run:50}") int maxWindowsPerRun,
+            @Value("${wishlist.sweeper.pause-ms:50}") long pauseMs) {
+        super("stale-wishlist-items", "wishlist_items", jdbcTemplate, transactionManager, meterRegistry,
+                windowSize, maxWindowsPerRun, pauseMs);
+        this.badgeCounters = badgeCounters;
+        this.membership = membership;
+    }
+
+    @Scheduled(initialDelayString = "${wishlist.sweeper.interval-ms:300000}",
+            fixedDelayString = "${wishlist.sweeper.interval-ms:300000}")
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    @Override
+    protected Map<Long, Long> findRows(long fromId, long toId) {
+        Map<Long, Long> rows = new LinkedHashMap<>();
+        jdbcTemplate.query(FIND_SQL, rs -> {
+            rows.put(rs.getLong(1), rs.getLong(2));
+        }, fromId, toId);
+        return rows;
+    }
+
+    @Override
+    protected void afterCommit(Set<Long> userIds) {
+        badgeCounters.invalidateUsers(userIds);
+        membership.invalidateUsers(userIds);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.server.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import com.example.server.dto.StorefrontDto;
+import com.example.server.model.Game;
+
+/**
+ * Builds the home page shelves from a catalog snapshot.
+ *
+ * Each shelf is a bounded top-K selection: one pass over the catalog with a
+ * heap of at most K entries, so building a shelf costs O(n log K) and never
+ * sorts the whole catalog.
+ */
+public final class StorefrontBuilder {
+
+    public static final int FEATURED_LIMIT = 3;
+    public static final int SALE_LIMIT = 8;
+    public static final int FREE_LIMIT = 6;
+    public static final int POPULAR_LIMIT = 8;
+    public static final double POPULAR_MIN_RATING = 4.5;
+
+    // Shelves without an explicit ordering keep catalog (id) order
+    private static final Comparator<Game> CATALOG_ORDER = Comparator.comparing(Game::getId);
+
+    private static final Comparator<Game> BY_RATING = Comparator
+            .comparing((Game game) -> game.getRating(), Comparator.reverseOrder())
+            .thenComparing(CATALOG_ORDER);
+
+    private StorefrontBuilder() {
+    }
+
+    public static StorefrontDto build(CatalogSnapshot catalog) {
+        List<Game> games = catalog.getGames();
+        return new StorefrontDto(
+                topK(games, StorefrontBuilder::isFeatured, CATALOG_ORDER, FEATURED_LIMIT),
+                topK(games, StorefrontBuilder::isSale, CATALOG_ORDER, SALE_LIMIT),
+                topK(games, StorefrontBuilder::isFree, CATALOG_ORDER, FREE_LIMIT),
+                topK(games, StorefrontBuilder::isPopular, BY_RATING, POPULAR_LIMIT));
+    }
+
+    // ==================== SHELF RULES ====================
+
+    private static boolean isFeatured(Game game) {
+        return "FEATURED".equalsIgnoreCase(game.getBadge());
+    }
+
+    private static boolean isSale(Game game) {
+        return (game.getDiscountPercentage() != null && game.getDiscountPercentage() > 0)
+                || "SALE".equalsIgnoreCase(game.getBadge());
+    }
+
+    private static boolean isFree(Game game) {
+        return (game.getOriginalPrice() != null && game.getOriginalPrice() == 0)
+                || "FREE".equalsIgnoreCase(game.getBadge());
+    }
+
+    private static boolean isPopular(Game game) {
+        return game.getRating() != null && game.getRating() >= POPULAR_MIN_RATING;
+    }
+
+    /**
+     * Select the first k matching games in the given order
+     */
+    static List<Game> topK(List<Game> games, Predicate<Game> filter, Comparator<Game> order, int k) {
+        // Max-heap on `order`: the head is the worst game kept so far
+        PriorityQueue<Game> heap = new PriorityQueue<>(k + 1, order.reversed());
+        for (Game game : games) {
+            if (!filter.test(game)) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(game);
+            } else if (order.compare(game, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(game);
+            }
+        }
+        List<Game> shelf = new ArrayList<>(heap);
+        shelf.sort(order);
+        return List.copyOf(shelf);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.server.service;
+
+/**
+ * Tax hook for cart totals. Declare a bean implementing this to charge tax;
+ * without one, carts are untaxed.
+ */
+@FunctionalInterface
+public interface TaxPolicy {
+
+    TaxPolicy NONE = subtotalCents -> 0L;
+
+    /**
+     * Tax owed on a cart subtotal
+     *
+     * @param subtotalCents sum of line totals, in cents
+     * @return tax in cents
+     */
+    long taxCents(long subtotalCents);
+}
@@ -0,0 +1,360 @@
+package com.example.server.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.example.server.model.Game;
+
+/**
+ * In-process trigram inverted index over game titles.
+ *
+ * Every title gets an internal document number; each trigram maps to a posting
+ * list of document numbers kept as a sorted int array. A query is split into
+ * terms, the posting lists of all term trigrams are intersected, and the few
+ * surviving candidates are verified and ranked. Updates are incremental: a new
+ * or changed title is appended as a new document and the old one is
+ * tombstoned until the next compaction.
+ */
+public class TitleSearchIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Rebuild posting lists once this fraction of documents are tombstones
+    private static final double COMPACTION_RATIO = 0.25;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, PostingList> postings = new HashMap<>();
+    private Map<Long, Integer> docByGameId = new HashMap<>();
+    private long[] gameIds = new long[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private BitSet deleted = new BitSet();
+    private int docCount;
+    private int deletedCount;
+
+    /**
+     * Replace the whole index with the given games
+     */
+    public void rebuild(Collection<Game> games) {
+        lock.writeLock().lock();
+        try {
+            clearInternal();
+            for (Game game : games) {
+                addInternal(game.getId(), game.getTitle());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add new games or re-index changed titles
+     */
+    public void upsert(Collection<Game> games) {
+        lock.writeLock().lock();
+        try {
+            for (Game game : games) {
+                Integer existing = docByGameId.get(game.getId());
+                String title = normalize(game.getTitle());
+                if (existing != null && titles[existing].equals(title)) {
+                    continue; // title unchanged, nothing to re-index
+                }
+                removeInternal(game.getId());
+                addInternal(game.getId(), game.getTitle());
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::removeInternal);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearInternal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find game IDs whose title contains every term of the query, best match first
+     *
+     * @param query free text, split on whitespace into terms
+     * @param limit maximum number of IDs to return
+     * @return matching game IDs ordered by relevance
+     */
+    public List<Long> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String[] terms = normalized.split(" ");
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(terms);
+            if (candidates != null && candidates.length == 0) {
+                return List.of();
+            }
+
+            // Min-heap of the best `limit` hits seen so far
+            PriorityQueue<Hit> best = new PriorityQueue<>();
+            int total = candidates != null ? candidates.length : docCount;
+            for (int i = 0; i < total; i++) {
+                int doc = candidates != null ? candidates[i] : i;
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                int score = score(titles[doc], normalized, terms);
+                if (score < 0) {
+                    continue;
+                }
+                Hit hit = new Hit(gameIds[doc], score, titles[doc].length());
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (hit.compareTo(best.peek()) > 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+
+            Hit[] ranked = best.toArray(new Hit[0]);
+            Arrays.sort(ranked, (a, b) -> b.compareTo(a));
+            List<Long> ids = new ArrayList<>(ranked.length);
+            for (Hit hit : ranked) {
+                ids.add(hit.gameId);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== QUERY HELPERS ====================
+
+    /**
+     * Intersect the posting lists of every trigram in the query. Returns null
+     * when no term is long enough to produce a trigram (caller scans all docs).
+     */
+    private int[] candidates(String[] terms) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String term : terms) {
+            for (int i = 0; i + 3 <= term.length(); i++) {
+                PostingList list = postings.get(trigram(term, i));
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+
+        // Start from the rarest trigram so every step shrinks the candidate set fastest
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists.get(0).docs, lists.get(0).size);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] left, PostingList right) {
+        int[] out = new int[Math.min(left.length, right.size)];
+        int n = 0;
+        int j = 0;
+        for (int doc : left) {
+            j = seek(right.docs, j, right.size, doc);
+            if (j == right.size) {
+                break;
+            }
+            if (right.docs[j] == doc) {
+                out[n++] = doc;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Galloping search for the first position >= target, starting at from
+    private static int seek(int[] docs, int from, int size, int target) {
+        int bound = 1;
+        while (from + bound < size && docs[from + bound] < target) {
+            bound <<= 1;
+        }
+        int low = from + (bound >> 1);
+        int high = Math.min(from + bound, size - 1);
+        int pos = Arrays.binarySearch(docs, low, high + 1, target);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    /**
+     * Rank a candidate title; returns -1 if it does not actually contain every term
+     */
+    private static int score(String title, String query, String[] terms) {
+        int score = 0;
+        for (String term : terms) {
+            int at = title.indexOf(term);
+            if (at < 0) {
+                return -1;
+            }
+            boolean wordStart = at == 0 || title.charAt(at - 1) == ' ';
+            score += wordStart ? 50 : 10;
+        }
+        if (title.equals(query)) {
+            score += 1000;
+        } else if (title.startsWith(query)) {
+            score += 500;
+        } else if (title.contains(query)) {
+            score += 100;
+        }
+        return score;
+    }
+
+    // ==================== INDEX MAINTENANCE ====================
+
+    private void addInternal(Long gameId, String rawTitle) {
+        String title = normalize(rawTitle);
+        int doc = docCount++;
+        if (doc == gameIds.length) {
+            gameIds = Arrays.copyOf(gameIds, doc * 2);
+            titles = Arrays.copyOf(titles, doc * 2);
+        }
+        gameIds[doc] = gameId;
+        titles[doc] = title;
+        docByGameId.put(gameId, doc);
+
+        // Documents are numbered in increasing order, so appending keeps every list sorted
+        for (int i = 0; i + 3 <= title.length(); i++) {
+            PostingList list = postings.computeIfAbsent(trigram(title, i), k -> new PostingList());
+            list.addIfLast(doc);
+        }
+    }
+
+    private void removeInternal(Long gameId) {
+        Integer doc = docByGameId.remove(gameId);
+        if (doc != null) {
+            deleted.set(doc);
+            deletedCount++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount > 0 && deletedCount >= docCount * COMPACTION_RATIO) {
+            long[] liveIds = new long[docCount - deletedCount];
+            String[] liveTitles = new String[liveIds.length];
+            int n = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (!deleted.get(doc)) {
+                    liveIds[n] = gameIds[doc];
+                    liveTitles[n] = titles[doc];
+                    n++;
+                }
+            }
+            clearInternal();
+            for (int i = 0; i < n; i++) {
+                addInternal(liveIds[i], liveTitles[i]);
+            }
+        }
+    }
+
+    private void clearInternal() {
+        postings = new HashMap<>();
+        docByGameId = new HashMap<>();
+        gameIds = new long[INITIAL_CAPACITY];
+        titles = new String[INITIAL_CAPACITY];
+        deleted = new BitSet();
+        docCount = 0;
+        deletedCount = 0;
+    }
+
+    // Lower-case and collapse whitespace so titles and queries compare the same way
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(lower.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    out.append(' ');
+                    pendingSpace = false;
+                }
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    // Pack three UTF-16 chars into one key
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    /**
+     * Growable sorted int array of document numbers
+     */
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private int size;
+
+        // A title can repeat a trigram; only the first occurrence is recorded
+        void addIfLast(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+
+    private record Hit(long gameId, int score, int titleLength) implements Comparable<Hit> {
+        // Higher score wins, then shorter title, then lower id
+        @Override
+        public int compareTo(Hit other) {
+            if (score != other.score) {
+                return Integer.compare(score, other.score);
+            }
+            if (titleLength != other.titleLength) {
+                return Integer.compare(other.titleLength, titleLength);
+            }
+            return Long.compare(other.gameId, gameId);
+        }
+    }
+}
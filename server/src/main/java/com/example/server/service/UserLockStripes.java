@@ -0,0 +1,36 @@
+package com.example.server.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-user locks for writes that must run one at a time in this process.
+ *
+ * Users hash onto a fixed, power-of-two sized set of locks, so memory stays
+ * constant however many users there are; two users sharing a stripe only
+ * ever wait for each other.
+ */
+final class UserLockStripes {
+
+    private static final int DEFAULT_STRIPES = 256;
+
+    private final ReentrantLock[] stripes;
+
+    UserLockStripes() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param count number of locks, rounded up to a power of two
+     */
+    UserLockStripes(int count) {
+        stripes = new ReentrantLock[count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    ReentrantLock lockFor(Long userId) {
+        int hash = Long.hashCode(userId);
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.server.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reverse wishlist index: game ID -> bitmap of the IDs of the users who
+ * wishlisted it, so a price drop finds its audience without querying
+ * wishlist_items (whose unique key leads with user_id).
+ *
+ * Loaded from wishlist_items on first use, in keyset pages of page-size
+ * rows, then kept current by WishlistService and GameService after each
+ * commit. Changes that arrive while a load is running are journaled and
+ * replayed onto the fresh index before it is swapped in. Writes that
+ * bypass those services (the stale-wishlist sweeper only removes rows
+ * whose game is gone) are picked up by the periodic rebuild.
+ */
+@Component
+public class WishlistReverseIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Rows read per keyset page while loading
+    @Value("${wishlist.reverse-index.page-size:10000}")
+    private int pageSize;
+
+    // Serializes loads; callers needing the index wait here for a running load
+    private final Object loadLock = new Object();
+
+    // Everything below is guarded by "this"
+    private Map<Long, RoaringBitmap> usersByGame; // null until loaded
+    private List<Change> journal; // non-null while a load is running
+
+    private record Change(long gameId, int userId, boolean added) {
+    }
+
+    public WishlistReverseIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Record that a user wishlisted a game
+     */
+    public void add(Long userId, Long gameId) {
+        apply(new Change(gameId, Math.toIntExact(userId), true));
+    }
+
+    /**
+     * Record that a user removed a game from their wishlist
+     */
+    public void remove(Long userId, Long gameId) {
+        apply(new Change(gameId, Math.toIntExact(userId), false));
+    }
+
+    /**
+     * Forget deleted games (their wishlist rows were deleted with them)
+     */
+    public synchronized void removeGames(Collection<Long> gameIds) {
+        if (journal != null) {
+            for (Long gameId : gameIds) {
+                journal.add(new Change(gameId, -1, false)); // -1 = every user
+            }
+        }
+        if (usersByGame != null) {
+            gameIds.forEach(usersByGame::remove);
+        }
+    }
+
+    /**
+     * IDs of the users who wishlisted a game, loading the index if needed
+     *
+     * @return a private copy; empty if nobody wishlisted the game
+     */
+    public RoaringBitmap getUsers(Long gameId) {
+        RoaringBitmap users = lookup(gameId);
+        if (users == null) {
+            synchronized (loadLock) {
+                if (!isLoaded()) {
+                    rebuild();
+                }
+            }
+            users = lookup(gameId);
+        }
+        return users;
+    }
+
+    // A copy of the game's users, or null if the index is not loaded
+    private synchronized RoaringBitmap lookup(Long gameId) {
+        if (usersByGame == null) {
+            return null;
+        }
+        RoaringBitmap users = usersByGame.get(gameId);
+        return users != null ? users.clone() : new RoaringBitmap();
+    }
+
+    private synchronized boolean isLoaded() {
+        return usersByGame != null;
+    }
+
+    /**
+     * Reload the index from wishlist_items; skipped until the first use has
+     * loaded it
+     */
+    @Scheduled(initialDelayString = "${wishlist.reverse-index.rebuild-interval-ms:21600000}",
+            fixedDelayString = "${wishlist.reverse-index.rebuild-interval-ms:21600000}")
+    public void scheduledRebuild() {
+        synchronized (loadLock) {
+            if (isLoaded()) {
+                rebuild();
+            }
+        }
+    }
+
+    // Callers must hold loadLock
+    private void rebuild() {
+        synchronized (this) {
+            journal = new ArrayList<>();
+        }
+
+        Map<Long, RoaringBitmap> loaded = new HashMap<>();
+        int rows = 0;
+        try {
+            long after = 0;
+            while (true) {
+                List<long[]> page = jdbcTemplate.query(
+                        "SELECT id, game_id, user_id FROM wishlist_items WHERE id > ? ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) },
+                        after, pageSize);
+                for (long[] row : page) {
+                    loaded.computeIfAbsent(row[1], id -> new RoaringBitmap()).add(Math.toIntExact(row[2]));
+                }
+                rows += page.size();
+                if (page.size() < pageSize) {
+                    break;
+                }
+                after = page.get(page.size() - 1)[0];
+            }
+            loaded.values().forEach(RoaringBitmap::runOptimize);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                journal = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (Change change : journal) {
+                applyTo(loaded, change);
+            }
+            journal = null;
+            usersByGame = loaded;
+        }
+        System.out.println("Wishlist reverse index loaded: " + rows + " entries across " + loaded.size() + " games");
+    }
+
+    private synchronized void apply(Change change) {
+        if (journal != null) {
+            journal.add(change);
+        }
+        if (usersByGame != null) {
+            applyTo(usersByGame, change);
+        }
+    }
+
+    private static void applyTo(Map<Long, RoaringBitmap> index, Change change) {
+        if (change.added()) {
+            index.computeIfAbsent(change.gameId(), id -> new RoaringBitmap()).add(change.userId());
+        } else if (change.userId() < 0) {
+            index.remove(change.gameId());
+        } else {
+            RoaringBitmap users = index.get(change.gameId());
+            if (users != null) {
+                users.remove(change.userId());
+                if (users.isEmpty()) {
+                    index.remove(change.gameId());
+                }
+            }
+        }
+    }
+}
@@ -1,27 +1,60 @@
 package com.example.server.service;
 
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.server.dto.MembershipDto;
 import com.example.server.exception.EntityNotFoundException;
 import com.example.server.model.Game;
 import com.example.server.model.WishlistItem;
 import com.example.server.repository.GameRepository;
 import com.example.server.repository.WishlistItemRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class WishlistService {
 
+    // Attempts per toggle when racing another toggle of the same entry
+    private static final int MAX_TOGGLE_ATTEMPTS = 5;
+
+    // Upper bound on game IDs per membership check (a few catalog pages)
+    public static final int MAX_MEMBERSHIP_IDS = 500;
+
     @Autowired
     private WishlistItemRepository wishlistRepository;
 
     @Autowired
     private GameRepository gameRepository;
 
+    @Autowired
+    private BadgeCounterCache badgeCounters;
+
+    @Autowired
+    private MembershipCache membership;
+
+    @Autowired
+    private WishlistReverseIndex reverseIndex;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A user's wishlist writes run one at a time in this process, commit and
+    // cache updates included, so the membership bitmap and the reverse index
+    // see a double-click's add and remove in the order the DB committed them
+    private final UserLockStripes locks = new UserLockStripes();
+
     /**
      * Add a game to user's wishlist
      */
@@ -35,29 +68,50 @@ public class WishlistService {
         Game game = gameRepository.findById(gameId)
                 .orElseThrow(() -> new EntityNotFoundException("Game not found with id: " + gameId));
 
-        // Check if game is already in wishlist
-        Optional<WishlistItem> existingItem = wishlistRepository.findByUserIdAndGameId(userId, gameId);
-        if (existingItem.isPresent()) {
-            throw new IllegalArgumentException("Game is already in your wishlist");
+        ReentrantLock lock = locks.lockFor(userId);
+        lock.lock();
+        try {
+            // Check if game is already in wishlist
+            Optional<WishlistItem> existingItem = wishlistRepository.findByUserIdAndGameId(userId, gameId);
+            if (existingItem.isPresent()) {
+                throw new IllegalArgumentException("Game is already in your wishlist");
+            }
+
+            // Create new wishlist item
+            WishlistItem wishlistItem = new WishlistItem();
+            wishlistItem.setUserId(userId);
+            wishlistItem.setGame(game);
+
+            WishlistItem saved = wishlistRepository.save(wishlistItem);
+            badgeCounters.adjustWishlistCount(userId, 1);
+            membership.setWishlisted(userId, gameId, true);
+            reverseIndex.add(userId, gameId);
+            return saved;
+        } finally {
+            lock.unlock();
         }
-
-        // Create new wishlist item
-        WishlistItem wishlistItem = new WishlistItem();
-        wishlistItem.setUserId(userId);
-        wishlistItem.setGame(game);
-
-        return wishlistRepository.save(wishlistItem);
     }
 
     /**
      * Remove a game from user's wishlist
      */
-    @Transactional
     public void removeFromWishlist(Long userId, Long gameId) {
-        if (!wishlistRepository.existsByUserIdAndGameId(userId, gameId)) {
-            throw new EntityNotFoundException("Game not found in your wishlist");
+        ReentrantLock lock = locks.lockFor(userId);
+        lock.lock();
+        try {
+            // Committed before the caches change, while still holding the user's lock
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!wishlistRepository.existsByUserIdAndGameId(userId, gameId)) {
+                    throw new EntityNotFoundException("Game not found in your wishlist");
+                }
+                wishlistRepository.deleteByUserIdAndGameId(userId, gameId);
+            });
+            badgeCounters.adjustWishlistCount(userId, -1);
+            membership.setWishlisted(userId, gameId, false);
+            reverseIndex.remove(userId, gameId);
+        } finally {
+            lock.unlock();
         }
-        wishlistRepository.deleteByUserIdAndGameId(userId, gameId);
     }
 
     /**
@@ -74,25 +128,102 @@ public class WishlistService {
         return wishlistRepository.existsByUserIdAndGameId(userId, gameId);
     }
 
+    /**
+     * Which of the given games are in the user's wishlist and cart
+     *
+     * Answered from the per-user membership bitmaps, so a whole catalog page
+     * costs at most one query per set when the user is not cached yet.
+     *
+     * @param userId  the logged-in user ID
+     * @param gameIds games to check, or null for the user's complete sets
+     * @return the subsets of gameIds in the wishlist and in the cart
+     */
+    public MembershipDto getMembership(Long userId, List<Long> gameIds) {
+        if (gameIds != null && gameIds.size() > MAX_MEMBERSHIP_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_MEMBERSHIP_IDS + " game IDs per check");
+        }
+        RoaringBitmap wishlist = getWishlistGameIds(userId);
+        RoaringBitmap cart = cartService.getCartMembership(userId).games();
+        return new MembershipDto(MembershipCache.select(wishlist, gameIds), MembershipCache.select(cart, gameIds));
+    }
+
+    /**
+     * IDs of the games in the user's wishlist, from the membership cache
+     *
+     * @return the IDs as a bitmap (do not modify)
+     */
+    public RoaringBitmap getWishlistGameIds(Long userId) {
+        return membership.getWishlist(userId, id -> MembershipCache.of(wishlistRepository.findGameIdsByUserId(id)));
+    }
+
     /**
      * Get wishlist count for a user
      */
     public Integer getWishlistCount(Long userId) {
-        Integer count = wishlistRepository.getWishlistCountByUserId(userId);
-        return count != null ? count : 0;
+        // Served from memory after the first read; add/remove keep it current
+        return badgeCounters.getWishlistCount(userId, id -> {
+            Integer count = wishlistRepository.getWishlistCountByUserId(id);
+            return count != null ? count : 0;
+        });
+    }
+
+    /**
+     * Outcome of a toggle
+     *
+     * @param inWishlist whether the game is in the wishlist afterwards
+     * @param count      the user's wishlist count afterwards
+     */
+    public record ToggleResult(boolean inWishlist, int count) {
     }
 
     /**
      * Toggle wishlist status (add if not present, remove if present)
+     *
+     * One transaction of one or two statements against the (user_id,
+     * game_id) unique key: delete the entry, and only if there was none,
+     * insert it. Two toggles racing on the same entry (a double-click)
+     * either queue on its row lock or deadlock on the key gap; the loser
+     * is rolled back and retried, so they always apply one after the other
+     * and cancel out.
      */
-    @Transactional
-    public boolean toggleWishlist(Long userId, Long gameId) {
-        if (isInWishlist(userId, gameId)) {
-            removeFromWishlist(userId, gameId);
-            return false; // Removed from wishlist
-        } else {
-            addToWishlist(userId, gameId);
-            return true; // Added to wishlist
+    public ToggleResult toggleWishlist(Long userId, Long gameId) {
+        if (userId == null || gameId == null) {
+            throw new IllegalArgumentException("User ID and Game ID are required");
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ReentrantLock lock = locks.lockFor(userId);
+        lock.lock();
+        try {
+            for (int attempt = 1;; attempt++) {
+                try {
+                    boolean added = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                        if (wishlistRepository.deleteEntry(userId, gameId) > 0) {
+                            return false; // Removed from wishlist
+                        }
+                        if (wishlistRepository.insertEntry(userId, gameId, LocalDateTime.now()) == 0) {
+                            throw new EntityNotFoundException("Game not found with id: " + gameId);
+                        }
+                        return true; // Added to wishlist
+                    }));
+                    // Still under the user's lock, so cache updates land in commit order
+                    badgeCounters.adjustWishlistCount(userId, added ? 1 : -1);
+                    membership.setWishlisted(userId, gameId, added);
+                    if (added) {
+                        reverseIndex.add(userId, gameId);
+                    } else {
+                        reverseIndex.remove(userId, gameId);
+                    }
+                    return new ToggleResult(added, getWishlistCount(userId));
+                } catch (ConcurrencyFailureException | DuplicateKeyException e) {
+                    // Lost a race with a toggle of the same entry in another instance
+                    if (attempt >= MAX_TOGGLE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
         }
     }
 }
\ No newline at end of file
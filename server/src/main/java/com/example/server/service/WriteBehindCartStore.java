@@ -0,0 +1,523 @@
+package com.example.server.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.server.exception.EntityNotFoundException;
+import com.example.server.model.CartItem;
+import com.example.server.model.Game;
+import com.example.server.repository.CartItemRepository;
+import com.example.server.repository.CartVersionRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory cart store that persists changes in the background.
+ *
+ * Each user's cart is loaded from cart_items on first access and then kept
+ * in memory; clicks only touch that copy and mark the line dirty. Dirty lines
+ * are coalesced (ten clicks on one game become one row write) and flushed as
+ * JDBC batches every flush interval, or sooner once flush-threshold carts
+ * are waiting. Each flush writes the line's current quantity, not a delta,
+ * so a failed flush is simply retried on the next round. Pending changes are
+ * flushed on shutdown.
+ *
+ * Lines keep only the game id; games are resolved from the catalog snapshot
+ * on read, so prices are always current and deleted games drop out.
+ *
+ * The cart version is loaded from cart_versions with the lines and written
+ * back by the same flush (never lowered, so a sweeper's bump survives), so
+ * it keeps counting up across idle eviction, sweeper evictions and restarts.
+ *
+ * Changes made inside a transaction (every CartService mutation runs in
+ * one) are undone in memory if that transaction rolls back. persist()
+ * writes a cart in the caller's transaction, for checkout, whose empty cart
+ * must commit together with the order.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "write-behind")
+public class WriteBehindCartStore implements CartStore {
+
+    // INSERT ... SELECT skips lines whose game was deleted before the flush
+    // updated_at is the flush time, within a flush interval of the last change
+    private static final String UPSERT_SQL = "INSERT INTO cart_items (user_id, game_id, quantity, added_at, "
+            + "updated_at) SELECT ?, g.id, ?, ?, NOW() FROM games g WHERE g.id = ? "
+            + "ON DUPLICATE KEY UPDATE quantity = ?, updated_at = NOW()";
+
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE user_id = ? AND game_id = ?";
+
+    private static final String VERSION_SQL = "INSERT INTO cart_versions (user_id, version) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE version = GREATEST(version, ?)";
+
+    private final CartItemRepository cartItemRepository;
+    private final CartVersionRepository cartVersionRepository;
+    private final GameService gameService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, UserCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean thresholdFlushQueued = new AtomicBoolean();
+    private final ExecutorService thresholdFlusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${cart.write-behind.batch-size:500}")
+    private int batchSize;
+
+    // Number of dirty carts that triggers a flush before the interval is up
+    @Value("${cart.write-behind.flush-threshold:1000}")
+    private int flushThreshold;
+
+    // Clean carts untouched for this long are dropped and reloaded on next access
+    @Value("${cart.write-behind.idle-eviction-ms:1800000}")
+    private long idleEvictionMs;
+
+    public WriteBehindCartStore(CartItemRepository cartItemRepository, CartVersionRepository cartVersionRepository,
+            GameService gameService, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.cartItemRepository = cartItemRepository;
+        this.cartVersionRepository = cartVersionRepository;
+        this.gameService = gameService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private static final class Line {
+        int quantity;
+        final LocalDateTime addedAt;
+        final Long id; // null until the line has been persisted and reloaded
+
+        Line(Long id, int quantity, LocalDateTime addedAt) {
+            this.id = id;
+            this.quantity = quantity;
+            this.addedAt = addedAt;
+        }
+    }
+
+    // Guarded by its own monitor
+    private static final class UserCart {
+        final Map<Long, Line> lines = new LinkedHashMap<>(); // by game id, oldest first
+        final Set<Long> dirtyGames = new HashSet<>(); // changed since the last flush; absent line = delete
+        long version; // loaded from cart_versions, written back by the flush
+        boolean versionDirty; // advanced since the last flush
+        long lastAccess;
+        boolean evicted;
+    }
+
+    // ==================== CART STORE ====================
+
+    @Override
+    public List<CartItem> getItems(Long userId) {
+        List<Line> lines = new ArrayList<>();
+        List<Long> gameIds = new ArrayList<>();
+        withCart(userId, cart -> {
+            cart.lines.forEach((gameId, line) -> {
+                gameIds.add(gameId);
+                lines.add(new Line(line.id, line.quantity, line.addedAt));
+            });
+            return null;
+        });
+
+        List<CartItem> items = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Game game = gameService.getGameById(gameIds.get(i));
+            if (game != null) {
+                Line line = lines.get(i);
+                items.add(new CartItem(line.id, userId, game, line.quantity, line.addedAt, null));
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public int getCount(Long userId) {
+        int count = 0;
+        for (CartItem item : getItems(userId)) {
+            count += item.getQuantity();
+        }
+        return count;
+    }
+
+    @Override
+    public void increment(Long userId, Long gameId) {
+        if (gameService.getGameById(gameId) == null) {
+            throw new EntityNotFoundException("Game not found with id: " + gameId);
+        }
+        withCart(userId, cart -> {
+            undoOnRollback(userId, cart);
+            cart.lines.computeIfAbsent(gameId, id -> new Line(null, 0, LocalDateTime.now())).quantity++;
+            markDirty(userId, cart, gameId);
+            return null;
+        });
+        flushIfBacklogged();
+    }
+
+    @Override
+    public boolean setQuantity(Long userId, Long gameId, int quantity) {
+        boolean updated = withCart(userId, cart -> {
+            Line line = cart.lines.get(gameId);
+            if (line == null) {
+                return false;
+            }
+            undoOnRollback(userId, cart);
+            line.quantity = quantity;
+            markDirty(userId, cart, gameId);
+            return true;
+        });
+        flushIfBacklogged();
+        return updated;
+    }
+
+    @Override
+    public void remove(Long userId, Long gameId) {
+        withCart(userId, cart -> {
+            undoOnRollback(userId, cart);
+            if (cart.lines.remove(gameId) != null) {
+                markDirty(userId, cart, gameId);
+            }
+            return null;
+        });
+        flushIfBacklogged();
+    }
+
+    @Override
+    public void apply(Long userId, Collection<Change> changes) {
+        withCart(userId, cart -> {
+            undoOnRollback(userId, cart);
+            for (Change change : changes) {
+                Long gameId = change.gameId();
+                if (change.increment()) {
+                    cart.lines.computeIfAbsent(gameId, id -> new Line(null, 0, LocalDateTime.now())).quantity
+                            += change.quantity();
+                } else if (change.quantity() > 0) {
+                    cart.lines.computeIfAbsent(gameId, id -> new Line(null, 0, LocalDateTime.now())).quantity
+                            = change.quantity();
+                } else if (cart.lines.remove(gameId) == null) {
+                    continue;
+                }
+                markDirty(userId, cart, gameId);
+            }
+            return null;
+        });
+        flushIfBacklogged();
+    }
+
+    @Override
+    public long getVersion(Long userId) {
+        return withCart(userId, cart -> cart.version);
+    }
+
+    @Override
+    public boolean advanceVersion(Long userId, long expected) {
+        return withCart(userId, cart -> {
+            if (cart.version != expected) {
+                return false;
+            }
+            undoOnRollback(userId, cart);
+            cart.version++;
+            cart.versionDirty = true;
+            dirtyUsers.add(userId);
+            return true;
+        });
+    }
+
+    /**
+     * Write the cart's unflushed lines and version in the caller's
+     * transaction. They stay marked dirty, so the next background flush
+     * writes the same state again; that is harmless, and it covers a
+     * rollback.
+     */
+    @Override
+    public void persist(Long userId) {
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> versions = new ArrayList<>();
+        withCart(userId, cart -> {
+            collect(userId, cart, upserts, deletes);
+            if (cart.versionDirty) {
+                versions.add(new Object[] { userId, cart.version, cart.version });
+            }
+            return null;
+        });
+        writeBatches(UPSERT_SQL, upserts);
+        writeBatches(DELETE_SQL, deletes);
+        writeBatches(VERSION_SQL, versions);
+    }
+
+    /**
+     * Drop clean copies so they reload; carts with pending changes are in use
+     * and keep their lines (the next flush writes back only what changed)
+     */
+    @Override
+    public void evict(Collection<Long> userIds) {
+        // Under the flush lock for the same reason as evictIdleCarts
+        flushLock.lock();
+        try {
+            for (Long userId : userIds) {
+                carts.computeIfPresent(userId, (id, cart) -> {
+                    synchronized (cart) {
+                        if (cart.dirtyGames.isEmpty() && !cart.versionDirty) {
+                            cart.evicted = true;
+                            return null;
+                        }
+                        return cart;
+                    }
+                });
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // ==================== CACHE ====================
+
+    /**
+     * Run an action on the user's cart under its lock, loading it on a miss
+     */
+    private <T> T withCart(Long userId, Function<UserCart, T> action) {
+        while (true) {
+            UserCart cart = carts.get(userId);
+            if (cart == null) {
+                UserCart loaded = load(userId);
+                UserCart raced = carts.putIfAbsent(userId, loaded);
+                cart = raced != null ? raced : loaded;
+            }
+            synchronized (cart) {
+                // An evicted cart may still be referenced here; retry with a fresh one
+                if (!cart.evicted) {
+                    cart.lastAccess = System.currentTimeMillis();
+                    return action.apply(cart);
+                }
+            }
+        }
+    }
+
+    private UserCart load(Long userId) {
+        UserCart cart = new UserCart();
+        cart.version = cartVersionRepository.findVersion(userId).orElse(0L);
+        for (CartItem item : cartItemRepository.findCartWithGames(userId)) {
+            cart.lines.put(item.getGame().getId(), new Line(item.getId(), item.getQuantity(), item.getAddedAt()));
+        }
+        return cart;
+    }
+
+    /**
+     * On the first change to a cart inside a transaction, copy the cart and
+     * put the copy back if that transaction does not commit. Every line that
+     * differs is marked dirty again, since a flush may have written the
+     * discarded state in the meantime. Caller holds the cart's lock.
+     */
+    private void undoOnRollback(Long userId, UserCart cart) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(cart)) {
+            return;
+        }
+        Map<Long, Line> lines = copyLines(cart);
+        long version = cart.version;
+        TransactionSynchronizationManager.bindResource(cart, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(cart);
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                synchronized (cart) {
+                    Set<Long> changed = new HashSet<>(cart.lines.keySet());
+                    changed.addAll(lines.keySet());
+                    cart.lines.clear();
+                    cart.lines.putAll(lines);
+                    cart.version = version;
+                    cart.versionDirty = true;
+                    changed.forEach(gameId -> markDirty(userId, cart, gameId));
+                    dirtyUsers.add(userId);
+                }
+            }
+        });
+    }
+
+    private static Map<Long, Line> copyLines(UserCart cart) {
+        Map<Long, Line> copy = new LinkedHashMap<>();
+        cart.lines.forEach((gameId, line) -> copy.put(gameId, new Line(line.id, line.quantity, line.addedAt)));
+        return copy;
+    }
+
+    // Caller holds the cart's lock
+    private void collect(Long userId, UserCart cart, List<Object[]> upserts, List<Object[]> deletes) {
+        for (Long gameId : cart.dirtyGames) {
+            Line line = cart.lines.get(gameId);
+            if (line == null) {
+                deletes.add(new Object[] { userId, gameId });
+            } else {
+                upserts.add(new Object[] { userId, line.quantity, Timestamp.valueOf(line.addedAt),
+                        gameId, line.quantity });
+            }
+        }
+    }
+
+    // Caller holds the cart's lock
+    private void markDirty(Long userId, UserCart cart, Long gameId) {
+        cart.dirtyGames.add(gameId);
+        dirtyUsers.add(userId);
+    }
+
+    // ==================== FLUSHING ====================
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+        evictIdleCarts();
+    }
+
+    private void flushIfBacklogged() {
+        if (dirtyUsers.size() >= flushThreshold && thresholdFlushQueued.compareAndSet(false, true)) {
+            thresholdFlusher.execute(() -> {
+                thresholdFlushQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Write every dirty line to cart_items in one transaction
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Object[]> upserts = new ArrayList<>();
+            List<Object[]> deletes = new ArrayList<>();
+            List<Object[]> versions = new ArrayList<>();
+            List<long[]> pending = new ArrayList<>();
+            List<Long> pendingVersions = new ArrayList<>();
+
+            for (Long userId : new ArrayList<>(dirtyUsers)) {
+                dirtyUsers.remove(userId);
+                UserCart cart = carts.get(userId); // dirty carts (lines or version) are never evicted
+                if (cart == null) {
+                    continue;
+                }
+                synchronized (cart) {
+                    collect(userId, cart, upserts, deletes);
+                    for (Long gameId : cart.dirtyGames) {
+                        pending.add(new long[] { userId, gameId });
+                    }
+                    cart.dirtyGames.clear();
+                    if (cart.versionDirty) {
+                        versions.add(new Object[] { userId, cart.version, cart.version });
+                        pendingVersions.add(userId);
+                        cart.versionDirty = false;
+                    }
+                }
+            }
+            if (pending.isEmpty() && pendingVersions.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    writeBatches(UPSERT_SQL, upserts);
+                    writeBatches(DELETE_SQL, deletes);
+                    writeBatches(VERSION_SQL, versions);
+                });
+            } catch (RuntimeException e) {
+                // Nothing was committed: mark the lines dirty again so the next flush retries them
+                for (long[] key : pending) {
+                    UserCart cart = carts.get(key[0]);
+                    if (cart != null) {
+                        synchronized (cart) {
+                            markDirty(key[0], cart, key[1]);
+                        }
+                    }
+                }
+                for (Long userId : pendingVersions) {
+                    UserCart cart = carts.get(userId);
+                    if (cart != null) {
+                        synchronized (cart) {
+                            cart.versionDirty = true;
+                            dirtyUsers.add(userId);
+                        }
+                    }
+                }
+                System.out.println("Cart write-behind flush of " + pending.size()
+                        + " lines failed, retrying next round: " + e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeBatches(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows, batchSize, (ps, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+            });
+        }
+    }
+
+    private void evictIdleCarts() {
+        long cutoff = System.currentTimeMillis() - idleEvictionMs;
+        // Under the flush lock so a failed flush can always find the carts it re-marks
+        flushLock.lock();
+        try {
+            for (Long userId : carts.keySet()) {
+                carts.computeIfPresent(userId, (id, cart) -> {
+                    synchronized (cart) {
+                        if (cart.dirtyGames.isEmpty() && !cart.versionDirty && cart.lastAccess < cutoff) {
+                            cart.evicted = true;
+                            return null;
+                        }
+                        return cart;
+                    }
+                });
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Persist whatever is still pending before the application stops
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        thresholdFlusher.shutdown();
+        thresholdFlusher.awaitTermination(10, TimeUnit.SECONDS);
+        for (int attempt = 0; attempt < 3 && !dirtyUsers.isEmpty(); attempt++) {
+            flush();
+        }
+        if (!dirtyUsers.isEmpty()) {
+            System.out.println("Cart write-behind: " + dirtyUsers.size() + " carts could not be persisted on shutdown");
+        } else {
+            System.out.println("Cart write-behind: all pending cart changes persisted on shutdown");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.server.util;
+
+import java.security.Principal;
+
+/**
+ * The logged-in user, taken from the JWT once per request by
+ * JwtAuthenticationFilter and stored as the principal in the
+ * SecurityContext. Controllers receive it with @AuthenticationPrincipal.
+ *
+ * @param userId   the "userId" claim (null for tokens issued without one)
+ * @param username the token subject
+ */
+public record AuthenticatedUser(Long userId, String username) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
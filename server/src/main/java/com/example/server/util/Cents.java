@@ -0,0 +1,44 @@
+package com.example.server.util;
+
+/**
+ * Money conversions in whole cents, shared by the entities and PricingEngine.
+ *
+ * Amounts are converted to cents once (rounded half-up) and all arithmetic
+ * is done on primitive longs; convert back with toAmount only at the API edge.
+ */
+public final class Cents {
+
+    private Cents() {
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
+    public static long toCents(Double amount) {
+        return amount != null ? toCents(amount.doubleValue()) : 0L;
+    }
+
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    public static long lineTotalCents(long unitPriceCents, int quantity) {
+        return Math.multiplyExact(unitPriceCents, (long) quantity);
+    }
+
+    /**
+     * Whole-percent discount, rounded half-up (0 when there is no discount)
+     *
+     * @throws IllegalArgumentException if the discount price is above the original price
+     */
+    public static int discountPercentage(long originalCents, long discountCents) {
+        if (discountCents > originalCents) {
+            throw new IllegalArgumentException("Discount price cannot be higher than original price");
+        }
+        if (originalCents <= 0) {
+            return 0;
+        }
+        return (int) (((originalCents - discountCents) * 200 + originalCents) / (originalCents * 2));
+    }
+}
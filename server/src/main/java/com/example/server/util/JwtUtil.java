@@ -1,12 +1,15 @@
 package com.example.server.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+
 import java.security.Key;
 import java.util.Date;
 
@@ -19,13 +22,21 @@ public class JwtUtil {
     @Value("${JWT_EXPIRATION:86400000}")
     private int JWT_EXPIRATION; // Default 24 hours in milliseconds
 
-    private Key getSigningKey() {
+    // Built once from the secret; both are immutable and thread-safe
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
         // Log warning if using default secret (for development awareness)
         if ("mySecretKeyForJWTTokenGenerationAndValidation2024!".equals(SECRET_KEY)) {
             System.out
                     .println("WARNING: Using default JWT secret - SET JWT_SECRET environment variable for production!");
         }
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     /**
@@ -37,58 +48,29 @@ public class JwtUtil {
                 .claim("userId", userId)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     /**
-     * Extract username from token
-     */
-    public String extractUsername(String token) {
-        return extractClaims(token).getSubject();
-    }
-
-    /**
-     * Extract user ID from token
+     * Verify a token (signature and expiry) and read the user from it, with
+     * a single parse
+     *
+     * @return the user, or null if the token is invalid or expired
      */
-    public Long extractUserId(String token) {
-        return extractClaims(token).get("userId", Long.class);
-    }
-
-    /**
-     * Extract expiration date from token
-     */
-    public Date extractExpiration(String token) {
-        return extractClaims(token).getExpiration();
+    public AuthenticatedUser authenticate(String token) {
+        try {
+            Claims claims = extractClaims(token);
+            return new AuthenticatedUser(claims.get("userId", Long.class), claims.getSubject());
+        } catch (Exception e) {
+            return null;
+        }
     }
 
     /**
      * Extract all claims from token
      */
     private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    /**
-     * Check if token is expired
-     */
-    public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Validate token
-     */
-    public boolean validateToken(String token, String username) {
-        try {
-            String tokenUsername = extractUsername(token);
-            return (tokenUsername.equals(username) && !isTokenExpired(token));
-        } catch (Exception e) {
-            return false;
-        }
+        return parser.parseClaimsJws(token).getBody();
     }
-}
\ No newline at end of file
+}
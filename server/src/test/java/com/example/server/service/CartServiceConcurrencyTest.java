@@ -0,0 +1,356 @@
+package com.example.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.example.server.dto.CartSummaryDto;
+import com.example.server.model.CartItem;
+import com.example.server.model.Game;
+
+/**
+ * Stress test for CartService's versioned, per-user serialized mutations.
+ *
+ * The store below stages every write like an uncommitted transaction and
+ * applies it only when the version compare-and-set succeeds, using a
+ * deliberately non-atomic read-modify-write. Lost updates would show up as
+ * wrong final quantities.
+ */
+class CartServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final long USER = 42L;
+
+    @Test
+    @Timeout(60)
+    void concurrentAddsToOneCartAreNeverLost() throws Exception {
+        InMemoryCartStore store = new InMemoryCartStore();
+        CartService cartService = cartService(store);
+        int addsPerThread = 500;
+
+        long elapsed = runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < addsPerThread; i++) {
+                cartService.addToCart(USER, 1L);
+            }
+        });
+
+        int expected = THREADS * addsPerThread;
+        CartSummaryDto cart = cartService.getCartSummary(USER);
+        assertEquals(expected, cart.findItem(1L).getQuantity());
+        assertEquals(expected, cart.getVersion());
+        assertEquals(expected, cartService.getCartItemCount(USER));
+        assertEquals(0, cartService.getConflictRetries(), "same-process writers never conflict");
+        report("single hot cart", expected, elapsed, cartService);
+    }
+
+    @Test
+    @Timeout(60)
+    void mixedMutationsFromSeveralTabsStayConsistent() throws Exception {
+        InMemoryCartStore store = new InMemoryCartStore();
+        CartService cartService = cartService(store);
+        int roundsPerThread = 300;
+
+        // Each tab owns one game: add it twice, bump it with an update, then remove it
+        long elapsed = runConcurrently(THREADS, thread -> {
+            long gameId = 100L + thread;
+            for (int i = 0; i < roundsPerThread; i++) {
+                cartService.addToCart(USER, gameId);
+                cartService.addToCart(USER, gameId);
+                cartService.updateQuantity(USER, gameId, 5);
+                cartService.removeFromCart(USER, gameId);
+            }
+            cartService.addToCart(USER, gameId);
+        });
+
+        CartSummaryDto cart = cartService.getCartSummary(USER);
+        assertEquals(THREADS, cart.getItems().size());
+        assertEquals(THREADS, cart.getCount());
+        assertEquals(THREADS * (roundsPerThread * 4L + 1), cart.getVersion());
+        assertEquals(THREADS, cartService.getCartItemCount(USER));
+        report("mixed add/update/remove", THREADS * (roundsPerThread * 4 + 1), elapsed, cartService);
+    }
+
+    @Test
+    @Timeout(60)
+    void retriesWhenAnotherInstanceWritesTheSameCart() throws Exception {
+        InMemoryCartStore store = new InMemoryCartStore();
+        CartService cartService = cartService(store);
+        int addsPerThread = 300;
+
+        // Plays a second server instance adding another game to the same cart
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger remoteAdds = new AtomicInteger();
+        Thread remote = new Thread(() -> {
+            while (running.get()) {
+                store.remoteIncrement(USER, 99L);
+                remoteAdds.incrementAndGet();
+                LockSupport.parkNanos(50_000);
+            }
+        });
+        remote.start();
+
+        long elapsed;
+        try {
+            elapsed = runConcurrently(4, thread -> {
+                for (int i = 0; i < addsPerThread; i++) {
+                    cartService.addToCart(USER, 1L);
+                }
+            });
+        } finally {
+            running.set(false);
+            remote.join();
+        }
+
+        CartSummaryDto cart = cartService.getCartSummary(USER);
+        assertEquals(4 * addsPerThread, cart.findItem(1L).getQuantity());
+        assertEquals(remoteAdds.get(), cart.findItem(99L).getQuantity());
+        assertEquals(4L * addsPerThread + remoteAdds.get(), cart.getVersion());
+        assertTrue(cartService.getConflictRetries() > 0, "the remote writer should have forced retries");
+        report("contended with remote writer", 4 * addsPerThread, elapsed, cartService);
+    }
+
+    @Test
+    @Timeout(60)
+    void differentUsersDoNotBlockEachOther() throws Exception {
+        InMemoryCartStore store = new InMemoryCartStore();
+        CartService cartService = cartService(store);
+        int addsPerThread = 500;
+
+        long elapsed = runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < addsPerThread; i++) {
+                cartService.addToCart(1000L + thread, 1L);
+            }
+        });
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            assertEquals(addsPerThread, cartService.getCartItemCount(1000L + thread));
+        }
+        report("one cart per thread", THREADS * addsPerThread, elapsed, cartService);
+    }
+
+    @Test
+    @Timeout(60)
+    void retriedCheckoutsPlaceExactlyOneOrder() throws Exception {
+        InMemoryCartStore store = new InMemoryCartStore();
+        CartService cartService = cartService(store);
+        cartService.addToCart(USER, 1L);
+        cartService.addToCart(USER, 2L);
+
+        // Every thread resubmits the same checkout, as a client retrying on timeouts would
+        Map<String, Integer> ordersByKey = new ConcurrentHashMap<>();
+        AtomicInteger placed = new AtomicInteger();
+        List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+        runConcurrently(THREADS, thread -> results.add(cartService.checkout(USER,
+                () -> ordersByKey.get("key-1"),
+                items -> {
+                    int order = placed.incrementAndGet();
+                    ordersByKey.put("key-1", order);
+                    return order;
+                })));
+
+        assertEquals(1, placed.get());
+        assertEquals(THREADS, results.size());
+        assertTrue(results.stream().allMatch(order -> order == 1));
+        assertTrue(cartService.getCartSummary(USER).getItems().isEmpty());
+        assertEquals(0, cartService.getCartItemCount(USER));
+    }
+
+    // ==================== HARNESS ====================
+
+    private static CartService cartService(InMemoryCartStore store) {
+        return new CartService(store, mock(GameService.class),
+                new BadgeCounterCache(10_000, Duration.ofMinutes(5)), new MembershipCache(10_000, Duration.ofMinutes(5)),
+                new PricingEngine(), store.transactionManager(),
+                256, 50);
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Start all workers together and wait for them
+     *
+     * @return wall-clock time in nanoseconds
+     */
+    private static long runConcurrently(int threads, Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - began;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return elapsed;
+    }
+
+    private static void report(String scenario, long mutations, long elapsedNanos, CartService cartService) {
+        double millis = elapsedNanos / 1_000_000.0;
+        System.out.printf("Cart stress [%s]: %d mutations in %.1f ms (%.0f/s), %d conflict retries%n",
+                scenario, mutations, millis, mutations / (millis / 1000.0), cartService.getConflictRetries());
+    }
+
+    /**
+     * Cart store that behaves like a transactional database: writes are
+     * staged per thread, applied when the version is advanced, and dropped
+     * on rollback.
+     */
+    private static final class InMemoryCartStore implements CartStore {
+
+        private final Map<Long, Map<Long, Integer>> lines = new HashMap<>(); // guarded by this
+        private final Map<Long, Long> versions = new HashMap<>(); // guarded by this
+        private final Map<Long, Game> games = new HashMap<>(); // guarded by this
+        private final ThreadLocal<List<Runnable>> staged = ThreadLocal.withInitial(ArrayList::new);
+
+        PlatformTransactionManager transactionManager() {
+            return new PlatformTransactionManager() {
+                @Override
+                public TransactionStatus getTransaction(TransactionDefinition definition) {
+                    staged.get().clear();
+                    return new SimpleTransactionStatus();
+                }
+
+                @Override
+                public void commit(TransactionStatus status) {
+                    staged.get().clear();
+                }
+
+                @Override
+                public void rollback(TransactionStatus status) {
+                    staged.get().clear();
+                }
+            };
+        }
+
+        // Another instance's committed transaction: bypasses CartService and its locks
+        synchronized void remoteIncrement(Long userId, Long gameId) {
+            cart(userId).merge(gameId, 1, Integer::sum);
+            versions.merge(userId, 1L, Long::sum);
+        }
+
+        @Override
+        public synchronized List<CartItem> getItems(Long userId) {
+            List<CartItem> items = new ArrayList<>();
+            cart(userId).forEach((gameId, quantity) -> items.add(
+                    new CartItem(null, userId, game(gameId), quantity, LocalDateTime.now(), null)));
+            return items;
+        }
+
+        @Override
+        public int getCount(Long userId) {
+            return getItems(userId).stream().mapToInt(CartItem::getQuantity).sum();
+        }
+
+        @Override
+        public void increment(Long userId, Long gameId) {
+            // Read now, write at commit: the classic lost-update shape
+            int current = quantity(userId, gameId);
+            Thread.yield();
+            staged.get().add(() -> cart(userId).put(gameId, current + 1));
+        }
+
+        @Override
+        public boolean setQuantity(Long userId, Long gameId, int quantity) {
+            if (quantity(userId, gameId) == 0) {
+                return false;
+            }
+            staged.get().add(() -> cart(userId).put(gameId, quantity));
+            return true;
+        }
+
+        @Override
+        public void remove(Long userId, Long gameId) {
+            staged.get().add(() -> cart(userId).remove(gameId));
+        }
+
+        @Override
+        public void apply(Long userId, Collection<Change> changes) {
+            for (Change change : changes) {
+                int current = quantity(userId, change.gameId());
+                int next = change.increment() ? current + change.quantity() : change.quantity();
+                staged.get().add(() -> {
+                    if (next > 0) {
+                        cart(userId).put(change.gameId(), next);
+                    } else {
+                        cart(userId).remove(change.gameId());
+                    }
+                });
+            }
+        }
+
+        @Override
+        public synchronized long getVersion(Long userId) {
+            return versions.getOrDefault(userId, 0L);
+        }
+
+        @Override
+        public synchronized boolean advanceVersion(Long userId, long expected) {
+            if (versions.getOrDefault(userId, 0L) != expected) {
+                return false;
+            }
+            versions.put(userId, expected + 1);
+            staged.get().forEach(Runnable::run);
+            staged.get().clear();
+            return true;
+        }
+
+        @Override
+        public void persist(Long userId) {
+        }
+
+        @Override
+        public void evict(Collection<Long> userIds) {
+        }
+
+        private synchronized int quantity(Long userId, Long gameId) {
+            return cart(userId).getOrDefault(gameId, 0);
+        }
+
+        private Map<Long, Integer> cart(Long userId) {
+            return lines.computeIfAbsent(userId, id -> new LinkedHashMap<>());
+        }
+
+        private Game game(Long gameId) {
+            return games.computeIfAbsent(gameId, id -> new Game(id, "Game " + id, "Action", "PC",
+                    10.0, null, null, 4.0, null, null, 10.0, false));
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.server.dto.GameFacetQueryDto;
+import com.example.server.dto.GameQueryResultDto;
+import com.example.server.model.Game;
+
+/**
+ * Checks CatalogFacetIndex against a linear filter over the same catalog
+ * snapshot: matches, totals and disjunctive facet counts must agree, and
+ * keyset paging must return every match once in ID order, also after
+ * upserts and removals. Rating and price buckets come from the index itself,
+ * so only the filtering and counting are redone here.
+ */
+class CatalogFacetIndexTest {
+
+    private static final String[] GENRES = { "Action", "RPG", "Strategy", "Racing" };
+    private static final String[] PLATFORMS = { "PC", "PS5", "Switch" };
+    private static final String[] BADGES = { "SALE", "NEW", "FEATURED" };
+    private static final double[] PRICES = { 0.0, 4.99, 9.99, 10.0, 19.99, 20.0, 39.99, 59.99, 60.0, 69.99 };
+
+    private final Random random = new Random(11);
+
+    @Test
+    void matchesLinearFilterThroughUpsertsAndRemovals() {
+        List<Game> games = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            games.add(randomGame(id));
+        }
+        CatalogSnapshot catalog = CatalogSnapshot.of(games);
+        CatalogFacetIndex index = new CatalogFacetIndex();
+        index.rebuild(games);
+
+        for (int round = 0; round <= 10; round++) {
+            if (round > 0) {
+                // Re-facet existing games, add new ones and drop a few
+                Map<Long, Game> upserts = new HashMap<>();
+                for (int i = 0; i < 60; i++) {
+                    long id = 1L + random.nextInt(catalog.size() + 20);
+                    upserts.put(id, randomGame(id));
+                }
+                List<Long> removals = new ArrayList<>();
+                for (int i = 0; i < 25; i++) {
+                    long id = 1L + random.nextInt(catalog.size() + 20);
+                    if (!upserts.containsKey(id)) {
+                        removals.add(id);
+                    }
+                }
+                catalog = catalog.withGames(upserts.values()).withoutGames(removals);
+                index.upsert(upserts.values());
+                index.remove(removals);
+            }
+            for (int i = 0; i < 40; i++) {
+                assertMatchesFilter(index, catalog, randomQuery());
+            }
+        }
+    }
+
+    @Test
+    void cursorAtTheLargestPossibleIdEndsPaging() {
+        List<Game> games = List.of(randomGame(1), randomGame(2));
+        CatalogFacetIndex index = new CatalogFacetIndex();
+        index.rebuild(games);
+
+        GameQueryResultDto page = index.query(new GameFacetQueryDto(), CatalogSnapshot.of(games),
+                (long) Integer.MAX_VALUE, 10);
+
+        assertEquals(List.of(), page.getItems());
+        assertFalse(page.isHasMore());
+        assertEquals(2, page.getTotal());
+    }
+
+    private void assertMatchesFilter(CatalogFacetIndex index, CatalogSnapshot catalog, GameFacetQueryDto query) {
+        List<Long> expected = new ArrayList<>();
+        catalog.getGames().stream().filter(game -> matches(game, query, "")).forEach(game -> expected.add(game.getId()));
+
+        int pageSize = 1 + random.nextInt(25);
+        List<Long> paged = new ArrayList<>();
+        GameQueryResultDto page = index.query(query, catalog, null, pageSize);
+        while (true) {
+            assertEquals(expected.size(), page.getTotal(), "total for " + query);
+            assertTrue(page.getItems().size() <= pageSize);
+            page.getItems().forEach(game -> paged.add(game.getId()));
+            assertEquals(page.isHasMore(), page.getNextCursor() != null);
+            if (!page.isHasMore()) {
+                break;
+            }
+            page = index.query(query, catalog, page.getNextCursor(), pageSize);
+        }
+        assertEquals(expected, paged, "matches for " + query);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("genre", counts(catalog, query, "genre", Game::getGenre));
+        facets.put("platform", counts(catalog, query, "platform", Game::getPlatform));
+        facets.put("badge", counts(catalog, query, "badge", Game::getBadge));
+        facets.put("rating", counts(catalog, query, "rating",
+                game -> game.getRating() != null ? CatalogFacetIndex.ratingLabel(game.getRating()) : null));
+        facets.put("price", counts(catalog, query, "price",
+                game -> game.getCurrentPrice() != null ? CatalogFacetIndex.priceLabel(game.getCurrentPrice()) : null));
+        facets.put("onSale", Map.of("true", (int) catalog.getGames().stream()
+                .filter(game -> game.isOnSale() && matches(game, query, "onSale")).count()));
+        assertEquals(facets, page.getFacets(), "facets for " + query);
+    }
+
+    // Games matching every filter except the facet's own, counted per value of that facet
+    private static Map<String, Integer> counts(CatalogSnapshot catalog, GameFacetQueryDto query, String facet,
+            Function<Game, String> value) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Game game : catalog.getGames()) {
+            if (value.apply(game) != null && matches(game, query, facet)) {
+                counts.merge(value.apply(game), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static boolean matches(Game game, GameFacetQueryDto query, String skip) {
+        Double price = game.getCurrentPrice();
+        double minPrice = query.getMinPrice() != null ? query.getMinPrice() : 0.0;
+        double maxPrice = query.getMaxPrice() != null ? query.getMaxPrice() : Double.MAX_VALUE;
+        return (skip.equals("genre") || selected(query.getGenres(), game.getGenre()))
+                && (skip.equals("platform") || selected(query.getPlatforms(), game.getPlatform()))
+                && (skip.equals("badge") || selected(query.getBadges(), game.getBadge()))
+                && (skip.equals("rating") || query.getMinRating() == null
+                        || (game.getRating() != null && game.getRating() >= query.getMinRating()))
+                && (skip.equals("price") || (query.getMinPrice() == null && query.getMaxPrice() == null)
+                        || (price != null && price >= minPrice && price <= maxPrice))
+                && (skip.equals("onSale") || !Boolean.TRUE.equals(query.getOnSale()) || game.isOnSale());
+    }
+
+    private static boolean selected(List<String> values, String value) {
+        return values == null || values.isEmpty()
+                || (value != null && values.stream().anyMatch(v -> v.trim().equalsIgnoreCase(value)));
+    }
+
+    // Selected values may differ in case and padding from the catalog's, or match nothing
+    private GameFacetQueryDto randomQuery() {
+        GameFacetQueryDto query = new GameFacetQueryDto();
+        query.setGenres(randomValues(GENRES));
+        query.setPlatforms(randomValues(PLATFORMS));
+        query.setBadges(randomValues(BADGES));
+        query.setMinRating(random.nextInt(3) == 0 ? random.nextInt(51) / 10.0 : null);
+        query.setMinPrice(random.nextInt(3) == 0 ? PRICES[random.nextInt(PRICES.length)] : null);
+        query.setMaxPrice(random.nextInt(3) == 0 ? PRICES[random.nextInt(PRICES.length)] + random.nextInt(2) / 2.0
+                : null);
+        query.setOnSale(random.nextInt(4) == 0 ? true : null);
+        return query;
+    }
+
+    private List<String> randomValues(String[] values) {
+        if (random.nextBoolean()) {
+            return null;
+        }
+        List<String> selected = new ArrayList<>();
+        for (String value : values) {
+            if (random.nextInt(3) == 0) {
+                selected.add(random.nextBoolean() ? value : " " + value.toLowerCase() + " ");
+            }
+        }
+        if (random.nextInt(4) == 0) {
+            selected.add("Unknown");
+        }
+        return selected;
+    }
+
+    private Game randomGame(long id) {
+        Game game = new Game();
+        game.setId(id);
+        game.setTitle("Game " + id);
+        game.setGenre(GENRES[random.nextInt(GENRES.length)]);
+        game.setPlatform(PLATFORMS[random.nextInt(PLATFORMS.length)]);
+        game.setBadge(random.nextInt(3) == 0 ? null : BADGES[random.nextInt(BADGES.length)]);
+        game.setRating(random.nextInt(8) == 0 ? null : random.nextInt(51) / 10.0);
+        game.setOriginalPrice(PRICES[random.nextInt(PRICES.length)]);
+        game.setDiscountPrice(random.nextInt(3) == 0 ? PRICES[random.nextInt(PRICES.length)] : null);
+        return game;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.server.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.server.model.CartItem;
+import com.example.server.model.Game;
+import com.example.server.util.Cents;
+
+/**
+ * Cart total and discount math: the old boxed-Double path against PricingEngine.
+ *
+ * Not run by mvn test. Run main() after mvn test-compile (e.g. from the IDE),
+ * and add -prof gc in the options to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({ "10", "200" })
+    int lines;
+
+    private List<CartItem> cart;
+    private final PricingEngine pricing = new PricingEngine();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        cart = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            double original = (random.nextInt(7000) + 99) / 100.0;
+            Double discount = random.nextBoolean() ? Math.floor(original * 0.8 * 100) / 100.0 : null;
+            Game game = new Game((long) i, "Game " + i, "Action", "PC", original, discount, null, 4.0, null, null,
+                    discount != null ? discount : original, discount != null);
+            cart.add(new CartItem((long) i, 1L, game, random.nextInt(3) + 1, null, null));
+        }
+    }
+
+    // ==================== CART TOTALS ====================
+
+    @Benchmark
+    public double doubleCartTotal() {
+        return legacyCartTotal(cart);
+    }
+
+    @Benchmark
+    public long centsCartTotal() {
+        return PricingEngine.subtotalCents(cart);
+    }
+
+    @Benchmark
+    public Object centsCartSummary() {
+        return pricing.summarize(cart, 1);
+    }
+
+    // ==================== DISCOUNTS ====================
+
+    @Benchmark
+    public int doubleDiscountPercentage() {
+        int sum = 0;
+        for (CartItem item : cart) {
+            Game game = item.getGame();
+            if (game.getDiscountPrice() != null) {
+                double percentage = ((game.getOriginalPrice() - game.getDiscountPrice()) / game.getOriginalPrice())
+                        * 100;
+                sum += (int) Math.round(percentage);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int centsDiscountPercentage() {
+        int sum = 0;
+        for (CartItem item : cart) {
+            Game game = item.getGame();
+            if (game.getDiscountPrice() != null) {
+                sum += Cents.discountPercentage(Cents.toCents(game.getOriginalPrice()),
+                        Cents.toCents(game.getDiscountPrice()));
+            }
+        }
+        return sum;
+    }
+
+    // The summing code CartService used before PricingEngine: a boxed Double per line
+    private static Double legacyCartTotal(List<CartItem> items) {
+        Double total = 0.0;
+        for (CartItem item : items) {
+            Double currentPrice = item.getGame().getCurrentPrice();
+            Double lineTotal = currentPrice != null ? currentPrice * item.getQuantity() : 0.0;
+            total += lineTotal;
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PricingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
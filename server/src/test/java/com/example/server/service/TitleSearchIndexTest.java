@@ -0,0 +1,125 @@
+package com.example.server.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.server.model.Game;
+
+/**
+ * Checks TitleSearchIndex against a substring scan of the same titles.
+ *
+ * Posting-list intersection, tombstones and compaction may change how much
+ * work a search does, but never which games it finds.
+ */
+class TitleSearchIndexTest {
+
+    private static final String[] WORDS = { "dark", "souls", "star", "wars", "war", "craft", "space", "age",
+            "empire", "legend", "zelda", "halo", "mario", "kart", "racing", "horizon", "dead", "red" };
+
+    private static final String[] QUERIES = { "dark", "war", "star wars", "craft war", "ar", "a", "leg zel",
+            "HORIZON", "  space   age ", "mario kart", "ace", "xyz", "dead red" };
+
+    @Test
+    void matchesSubstringScanThroughUpsertsAndRemovals() {
+        Random random = new Random(7);
+        Map<Long, String> titles = new HashMap<>();
+        for (long id = 1; id <= 400; id++) {
+            titles.put(id, randomTitle(random));
+        }
+        TitleSearchIndex index = new TitleSearchIndex();
+        index.rebuild(games(titles));
+        assertMatchesScan(index, titles);
+
+        for (int round = 0; round < 10; round++) {
+            // Renames, inserts, unchanged titles and removals; enough tombstones to force compactions
+            Map<Long, String> upserts = new HashMap<>();
+            for (int i = 0; i < 50; i++) {
+                upserts.put(1L + random.nextInt(titles.size() + 20), randomTitle(random));
+            }
+            titles.keySet().stream().limit(5).forEach(id -> upserts.putIfAbsent(id, titles.get(id)));
+            List<Long> removals = new ArrayList<>();
+            for (int i = 0; i < 15; i++) {
+                long id = 1L + random.nextInt(titles.size() + 20);
+                if (!upserts.containsKey(id)) {
+                    removals.add(id);
+                }
+            }
+
+            index.upsert(games(upserts));
+            index.remove(removals);
+            titles.putAll(upserts);
+            removals.forEach(titles::remove);
+
+            assertEquals(titles.size(), index.size());
+            assertMatchesScan(index, titles);
+        }
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordStartMatches() {
+        TitleSearchIndex index = new TitleSearchIndex();
+        index.rebuild(games(Map.of(1L, "Super Star Wars", 2L, "Star Wars Battlefront", 3L, "Star Wars",
+                4L, "Wars of the Star")));
+
+        assertEquals(List.of(3L, 2L, 1L, 4L), index.search("star wars", 10));
+        assertEquals(List.of(3L, 2L), index.search("star wars", 2));
+
+        index.upsert(games(Map.of(3L, "Halo")));
+        assertEquals(List.of(2L, 1L, 4L), index.search("star wars", 10));
+        assertEquals(List.of(3L), index.search("halo", 10));
+    }
+
+    private static void assertMatchesScan(TitleSearchIndex index, Map<Long, String> titles) {
+        for (String query : QUERIES) {
+            String[] terms = TitleSearchIndex.normalize(query).split(" ");
+            Set<Long> expected = new TreeSet<>();
+            titles.forEach((id, title) -> {
+                String text = TitleSearchIndex.normalize(title);
+                for (String term : terms) {
+                    if (!text.contains(term)) {
+                        return;
+                    }
+                }
+                expected.add(id);
+            });
+
+            List<Long> found = index.search(query, Integer.MAX_VALUE);
+            assertEquals(expected, new HashSet<>(found), "query '" + query + "'");
+            assertEquals(expected.size(), found.size(), "duplicate hits for '" + query + "'");
+            assertEquals(found.subList(0, Math.min(5, found.size())), index.search(query, 5),
+                    "top 5 for '" + query + "'");
+        }
+    }
+
+    private static String randomTitle(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(i > 0 ? "  ".substring(random.nextInt(2)) : "")
+                    .append(random.nextInt(4) == 0 ? word.toUpperCase() : word);
+        }
+        return title.toString();
+    }
+
+    private static List<Game> games(Map<Long, String> titles) {
+        List<Game> games = new ArrayList<>();
+        titles.forEach((id, title) -> {
+            Game game = new Game();
+            game.setId(id);
+            game.setTitle(title);
+            games.add(game);
+        });
+        return games;
+    }
+}